@@ -0,0 +1,71 @@
+#!/bin/sh
+# Size and throughput of a large group's task list as JSON, CBOR and Smile.
+#
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/postgres \
+#   SPRING_DATASOURCE_USERNAME=postgres SPRING_DATASOURCE_PASSWORD=password123 ./run.sh
+#
+# Needs the application jar (./mvnw package -DskipTests), a running database and
+# ApacheBench (ab). Imports TASKS tasks into a fresh group, then fetches the group's
+# task list REQUESTS times, CONCURRENCY at a time, once per Accept header. Responses
+# are encoded on the server, so requests per second follow the encoding cost. Each
+# format's body size is also reported gzipped, since a proxy may compress JSON
+# anyway. Results go to results-json.txt, results-cbor.txt and results-smile.txt.
+set -e
+cd "$(dirname "$0")"
+
+JAR=${JAR:-../../target/demo-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+TASKS=${TASKS:-5000}
+REQUESTS=${REQUESTS:-2000}
+CONCURRENCY=${CONCURRENCY:-16}
+API="http://localhost:$PORT/api"
+
+field() {
+  sed -n "s/.*\"$1\":\([0-9][0-9]*\).*/\1/p"
+}
+
+java -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false > app.log 2>&1 &
+APP=$!
+trap 'kill $APP 2>/dev/null' EXIT
+until curl -s -o /dev/null "$API/groups/my-groups"; do
+  sleep 1
+done
+
+NAME="bench$(date +%s)"
+curl -sf -X POST "$API/auth/signup" -H 'Content-Type: application/json' \
+  -d "{\"username\":\"$NAME\",\"password\":\"password123\",\"confirmPassword\":\"password123\"}" >/dev/null
+USER_ID=$(curl -sf -X POST "$API/auth/login" -H 'Content-Type: application/json' \
+  -d "{\"username\":\"$NAME\",\"password\":\"password123\"}" | field userId)
+GROUP_ID=$(curl -sf -X POST "$API/groups/create" -H 'Content-Type: application/json' -H "User-Id: $USER_ID" \
+  -d "{\"name\":\"$NAME\",\"description\":\"encoding benchmark\"}" | field id)
+
+# Realistic text lengths, so field names are not the whole payload
+awk -v n="$TASKS" 'BEGIN {
+  print "id,title,description,deadline,status,assigned_user_id,created_by,created_at,updated_at"
+  split("TODO IN_PROGRESS DONE", status, " ")
+  for (i = 1; i <= n; i++) {
+    printf ",Benchmark task %d,Description of benchmark task %d with a sentence or two of detail,", i, i
+    printf "2030-%02d-%02d 12:00:00,%s,,,,\n", i % 12 + 1, i % 28 + 1, status[i % 3 + 1]
+  }
+}' > tasks.csv
+curl -sf -X POST "$API/groups/$GROUP_ID/import/tasks" -H 'Content-Type: text/csv' -H "User-Id: $USER_ID" \
+  --data-binary @tasks.csv >/dev/null
+
+run() {
+  URL="$API/tasks/group/$GROUP_ID"
+  curl -sf -H "Accept: $2" -H "User-Id: $USER_ID" "$URL" > "body-$1"
+  # Warm up connections and the JIT before measuring
+  ab -q -n 200 -c "$CONCURRENCY" -H "Accept: $2" -H "User-Id: $USER_ID" "$URL" > /dev/null
+  {
+    echo "Body bytes:             $(wc -c < "body-$1")"
+    echo "Gzipped body bytes:     $(gzip -c "body-$1" | wc -c)"
+    ab -n "$REQUESTS" -c "$CONCURRENCY" -H "Accept: $2" -H "User-Id: $USER_ID" "$URL" \
+      | grep -E 'Failed requests|Non-2xx|Requests per second|Time per request|  50%|  99%'
+  } > "results-$1.txt"
+  echo "== $1"
+  cat "results-$1.txt"
+}
+
+run json application/json
+run cbor application/cbor
+run smile application/x-jackson-smile
@@ -0,0 +1,60 @@
+#!/bin/sh
+# Top-level comment throughput with and without the comment batch writer.
+#
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/postgres \
+#   SPRING_DATASOURCE_USERNAME=postgres SPRING_DATASOURCE_PASSWORD=password123 ./run.sh
+#
+# Needs the application jar (./mvnw package -DskipTests), a running database and
+# ApacheBench (ab). Starts the application once with
+# app.comment-batch-writer.enabled=false and once with it true, and each time posts
+# REQUESTS comments, CONCURRENCY at a time, into one group: every comment in a group
+# takes the same lock, so that is where batching matters. Results go to
+# results-direct.txt and results-batched.txt.
+set -e
+cd "$(dirname "$0")"
+
+JAR=${JAR:-../../target/demo-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+REQUESTS=${REQUESTS:-20000}
+CONCURRENCY=${CONCURRENCY:-64}
+API="http://localhost:$PORT/api"
+
+field() {
+  sed -n "s/.*\"$1\":\([0-9][0-9]*\).*/\1/p"
+}
+
+run() {
+  java -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false \
+    --app.comment-batch-writer.enabled="$2" > "app-$1.log" 2>&1 &
+  APP=$!
+  trap 'kill $APP 2>/dev/null' EXIT
+  until curl -s -o /dev/null "$API/groups/my-groups"; do
+    sleep 1
+  done
+
+  # A fresh user and group per run, so both start from an empty group
+  NAME="bench$1$(date +%s)"
+  curl -sf -X POST "$API/auth/signup" -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$NAME\",\"password\":\"password123\",\"confirmPassword\":\"password123\"}" >/dev/null
+  USER_ID=$(curl -sf -X POST "$API/auth/login" -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$NAME\",\"password\":\"password123\"}" | field userId)
+  GROUP_ID=$(curl -sf -X POST "$API/groups/create" -H 'Content-Type: application/json' -H "User-Id: $USER_ID" \
+    -d "{\"name\":\"$NAME\",\"description\":\"comment benchmark\"}" | field id)
+
+  echo '{"content":"benchmark comment"}' > comment.json
+  # Warm up connections and the JIT before measuring
+  ab -q -n 1000 -c "$CONCURRENCY" -p comment.json -T application/json -H "User-Id: $USER_ID" \
+    "$API/groups/$GROUP_ID/comments" > /dev/null
+  ab -n "$REQUESTS" -c "$CONCURRENCY" -p comment.json -T application/json -H "User-Id: $USER_ID" \
+    "$API/groups/$GROUP_ID/comments" \
+    | grep -E 'Failed requests|Non-2xx|Requests per second|Time per request|  50%|  99%' > "results-$1.txt"
+
+  kill $APP
+  wait $APP 2>/dev/null || true
+  trap - EXIT
+  echo "== $1"
+  cat "results-$1.txt"
+}
+
+run direct false
+run batched true
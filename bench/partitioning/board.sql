@@ -0,0 +1,5 @@
+-- One status column of a group's board, in rank order
+\set group random(1, :groups)
+SELECT id, title, status, rank FROM tasks
+WHERE group_id = :group AND status = 'TODO'
+ORDER BY rank LIMIT 100;
@@ -0,0 +1,6 @@
+-- Delta sync: a group's tasks changed after a recent watermark
+\set group random(1, :groups)
+\set since random(1, :max_seq)
+SELECT id, title, status, change_seq FROM tasks
+WHERE group_id = :group AND change_seq > :since
+ORDER BY change_seq LIMIT 100;
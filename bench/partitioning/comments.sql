@@ -0,0 +1,5 @@
+-- A group's first page of threads
+\set group random(1, :groups)
+SELECT id, content, thread_path FROM comments
+WHERE group_id = :group AND depth = 0
+ORDER BY thread_path LIMIT 50;
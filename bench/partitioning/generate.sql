@@ -0,0 +1,21 @@
+-- Fills tasks and comments with synthetic rows spread evenly over :groups groups.
+--   psql -v rows=50000000 -v comments=10000000 -v groups=20000 -f generate.sql
+INSERT INTO tasks (version, title, description, deadline, status, group_id, user_id, created_by,
+                   created_at, updated_at, change_seq, rank)
+SELECT 0, 'Task ' || n, NULL,
+       now() + (n % 365) * interval '1 day',
+       (ARRAY['TODO', 'IN_PROGRESS', 'DONE'])[1 + n % 3],
+       1 + n % :groups, 1 + n % 5000, 1, now(), now(),
+       1 + n / :groups,
+       lpad(to_hex(n / :groups), 8, '0')
+FROM generate_series(1, :rows) AS n;
+
+INSERT INTO comments (version, content, group_id, author_id, created_at, updated_at, is_edited,
+                      change_seq, thread_path, depth, reply_count)
+SELECT 0, 'Comment ' || n, 1 + n % :groups, 1 + n % 5000,
+       now() - (n % 720) * interval '1 hour', now(), false,
+       1 + n / :groups, lpad(to_hex(n), 16, '0'), 0, 0
+FROM generate_series(1, :comments) AS n;
+
+VACUUM ANALYZE tasks;
+VACUUM ANALYZE comments;
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Group-scoped query latency before and after partitioning tasks and comments.
+#
+#   PGHOST=localhost PGUSER=postgres PGPASSWORD=password123 ./run.sh
+#
+# Needs an empty database whose schema the application has created while
+# db/partition-by-group.sql was skipped (for example with spring.sql.init.mode=never),
+# so both tables start out unpartitioned. Loads ROWS tasks, measures each query with
+# pgbench, converts the tables with db/manual/partition-existing-tables.sql and
+# measures again. Results go to results-unpartitioned.txt and results-partitioned.txt.
+set -e
+cd "$(dirname "$0")"
+
+ROWS=${ROWS:-50000000}
+COMMENTS=${COMMENTS:-10000000}
+GROUP_COUNT=${GROUP_COUNT:-20000}
+CLIENTS=${CLIENTS:-8}
+DURATION=${DURATION:-60}
+MAX_SEQ=$((ROWS / GROUP_COUNT))
+
+measure() {
+  : > "results-$1.txt"
+  for script in board changes comments; do
+    echo "== $script" >> "results-$1.txt"
+    pgbench -n -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -D groups="$GROUP_COUNT" -D max_seq="$MAX_SEQ" \
+      -f "$script.sql" | grep -E 'latency|tps' >> "results-$1.txt"
+  done
+  cat "results-$1.txt"
+}
+
+psql -v ON_ERROR_STOP=1 -v rows="$ROWS" -v comments="$COMMENTS" -v groups="$GROUP_COUNT" -f generate.sql
+measure unpartitioned
+
+psql -v ON_ERROR_STOP=1 -f ../../src/main/resources/db/manual/partition-existing-tables.sql
+psql -v ON_ERROR_STOP=1 -c 'VACUUM ANALYZE tasks' -c 'VACUUM ANALYZE comments'
+measure partitioned
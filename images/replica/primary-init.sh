@@ -0,0 +1,4 @@
+#!/bin/sh
+# Lets the replica stream WAL from this server. Init scripts only run on an empty data
+# directory, so an existing pgdata volume has to be recreated once.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
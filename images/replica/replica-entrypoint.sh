@@ -0,0 +1,16 @@
+#!/bin/sh
+set -e
+
+# First start: clone the primary and configure this server as a hot standby
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  mkdir -p "$PGDATA"
+  chown postgres:postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+  until su-exec postgres pg_basebackup -h postgres -U postgres -D "$PGDATA" -R -X stream; do
+    echo "Waiting for primary..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+fi
+
+exec docker-entrypoint.sh postgres
@@ -0,0 +1,73 @@
+package org.psk.demo.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Opt-in binary response encodings. A client sending {@code Accept: application/cbor}
+ * or {@code Accept: application/x-jackson-smile} gets the same DTOs in that format,
+ * with LocalDateTime fields as epoch milliseconds. JSON stays first in the converter
+ * list, so it remains the default for every other Accept header.
+ * {@code bench/binary-encoding/run.sh} compares the three on a large group's task list.
+ */
+@Configuration
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Replace the framework defaults, which would write dates as ISO strings or arrays
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+
+        converters.add(new MappingJackson2CborHttpMessageConverter(binaryMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(binaryMapper(new SmileFactory())));
+    }
+
+    private ObjectMapper binaryMapper(JsonFactory factory) {
+        return objectMapperBuilder.getObject()
+                .factory(factory)
+                .serializerByType(LocalDateTime.class, new EpochMillisSerializer())
+                .deserializerByType(LocalDateTime.class, new EpochMillisDeserializer())
+                .build();
+    }
+
+    // LocalDateTime values are server-local, so they are converted in the system zone
+    private static class EpochMillisSerializer extends JsonSerializer<LocalDateTime> {
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private static class EpochMillisDeserializer extends JsonDeserializer<LocalDateTime> {
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.psk.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary/replica datasource routing, active only when a replica URL is configured.
+ * Transactions marked {@code readOnly = true} read from the replica pool; everything
+ * else, including non-transactional access, uses the primary.
+ * <p>
+ * With open-in-view one EntityManager spans the whole request, and Hibernate would by
+ * default hold the first connection it gets until the request ends, so a write after
+ * a read-only lookup would run on the replica. Connections are therefore released at
+ * the end of every transaction, and each transaction is routed on its own. Replica
+ * transactions do not fill the second-level or query caches, see
+ * {@link ReplicaCacheModeListener}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${app.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    @Value("${app.datasource.replica.staleness-policy:READ_YOUR_WRITES}")
+    private ReplicaStalenessPolicy stalenessPolicy;
+
+    @Value("${app.datasource.replica.pin-window-ms:5000}")
+    private long pinWindowMs;
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(stalenessPolicy, pinWindowMs);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // Registered with the transaction manager by Spring Boot, like any TransactionExecutionListener bean
+    @Bean
+    public ReplicaCacheModeListener replicaCacheModeListener(EntityManagerFactory entityManagerFactory,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        return new ReplicaCacheModeListener(entityManagerFactory, readYourWritesTracker);
+    }
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername.isEmpty() ? properties.determineUsername() : replicaUsername)
+                .password(replicaPassword.isEmpty() ? properties.determinePassword() : replicaPassword)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replicaMaximumPoolSize);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesTracker()));
+    }
+}
@@ -0,0 +1,31 @@
+package org.psk.demo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica unless the staleness policy pins the
+ * current user to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is only fetched once the transaction's read-only flag has been set.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadWriteRoutingDataSource(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !tracker.isPinnedToPrimary()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,58 @@
+package org.psk.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Binds the calling user for replica routing and pins them to the primary from the
+ * start of any request that may write until the pin window after it completes.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesInterceptor(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long userId = userIdOf(request);
+        if (userId != null) {
+            tracker.bindCurrentUser(userId);
+            if (mayWrite(request)) {
+                tracker.writeStarted(userId);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long userId = userIdOf(request);
+        if (userId != null && mayWrite(request)) {
+            tracker.writeFinished(userId);
+        }
+        tracker.clearCurrentUser();
+    }
+
+    private boolean mayWrite(HttpServletRequest request) {
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS", "TRACE" -> false;
+            default -> true;
+        };
+    }
+
+    private Long userIdOf(HttpServletRequest request) {
+        String header = request.getHeader("User-Id");
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.psk.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads can be kept off a replica that
+ * may not have caught up yet. The current user is bound per request thread by
+ * {@link ReadYourWritesInterceptor}.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final ReplicaStalenessPolicy policy;
+    private final long pinWindowMs;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    // Requests per user that may be writing right now; such a user is pinned throughout
+    private final Map<Long, Integer> writesInFlight = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(ReplicaStalenessPolicy policy, long pinWindowMs) {
+        this.policy = policy;
+        this.pinWindowMs = pinWindowMs;
+    }
+
+    public void bindCurrentUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    /**
+     * Pins the user before a request that may write runs, so a read sent the moment its
+     * response arrives cannot reach the replica first.
+     */
+    public void writeStarted(Long userId) {
+        if (policy == ReplicaStalenessPolicy.READ_YOUR_WRITES) {
+            writesInFlight.merge(userId, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Keeps the user pinned for the pin window after a request that may have written.
+     */
+    public void writeFinished(Long userId) {
+        if (policy == ReplicaStalenessPolicy.READ_YOUR_WRITES) {
+            pinnedUntil.put(userId, System.currentTimeMillis() + pinWindowMs);
+            writesInFlight.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Whether reads on the current thread must go to the primary
+     */
+    public boolean isPinnedToPrimary() {
+        Long userId = CURRENT_USER.get();
+        if (policy != ReplicaStalenessPolicy.READ_YOUR_WRITES || userId == null) {
+            return false;
+        }
+
+        if (writesInFlight.containsKey(userId)) {
+            return true;
+        }
+
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            pinnedUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+}
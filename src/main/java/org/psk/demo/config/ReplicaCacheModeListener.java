@@ -0,0 +1,40 @@
+package org.psk.demo.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps replica reads out of the second-level and query caches. A transaction routed
+ * to the replica may see data that is behind the primary, and caching it would serve
+ * that stale data to everyone, pinned or not, until the region expires. Such
+ * transactions still read from the caches but never fill them; every other
+ * transaction caches as usual.
+ */
+public class ReplicaCacheModeListener implements TransactionExecutionListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReadYourWritesTracker tracker;
+
+    public ReplicaCacheModeListener(EntityManagerFactory entityManagerFactory, ReadYourWritesTracker tracker) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null || !transaction.isNewTransaction()) {
+            return;
+        }
+
+        // With open-in-view the session outlives the transaction, so the mode is set either way
+        if (TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder) {
+            boolean replica = transaction.isReadOnly() && !tracker.isPinnedToPrimary();
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(replica ? CacheMode.GET : CacheMode.NORMAL);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.psk.demo.config;
+
+public enum ReplicaStalenessPolicy {
+    // Read-only transactions always go to the replica
+    EVENTUAL,
+    // A user's read-only transactions stay on the primary for a short window after they write
+    READ_YOUR_WRITES
+}
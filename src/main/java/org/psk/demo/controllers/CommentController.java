@@ -4,14 +4,20 @@ import jakarta.validation.Valid;
 import org.psk.demo.dto.request.CommentRequest;
 import org.psk.demo.dto.response.AuthenticationResponse;
 import org.psk.demo.dto.response.CommentListResponse;
+import org.psk.demo.dto.response.CommentThreadPageResponse;
 import org.psk.demo.dto.response.ErrorResponse;
+import org.psk.demo.dto.response.SparseCommentListResponse;
+import org.psk.demo.services.CommentBatchWriter;
 import org.psk.demo.services.CommentService;
+import org.psk.demo.services.GroupWriteQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.stream.Collectors;
 
@@ -23,6 +29,12 @@ public class CommentController {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private GroupWriteQueue groupWriteQueue;
+
+    @Autowired
+    private CommentBatchWriter commentBatchWriter;
+
     @PostMapping
     public ResponseEntity<?> createComment(
             @PathVariable Long groupId,
@@ -39,7 +51,9 @@ public class CommentController {
                     .body(new ErrorResponse(errors, false));
         }
 
-        AuthenticationResponse response = commentService.createComment(groupId, request, userId);
+        AuthenticationResponse response = commentBatchWriter.isEnabled() && request.getParentId() == null
+                ? commentBatchWriter.submit(groupId, request, userId).join()
+                : groupWriteQueue.execute(groupId, () -> commentService.createComment(groupId, request, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -49,9 +63,19 @@ public class CommentController {
     }
 
     @GetMapping
-    public ResponseEntity<CommentListResponse> getComments(
+    public ResponseEntity<?> getComments(
             @PathVariable Long groupId,
-            @RequestHeader("User-Id") Long userId) {
+            @RequestHeader("User-Id") Long userId,
+            @RequestParam(required = false) String fields) {
+
+        if (fields != null) {
+            SparseCommentListResponse sparse = commentService.getCommentsByGroup(groupId, userId, fields);
+            if (sparse.isSuccess()) {
+                return ResponseEntity.ok(sparse);
+            } else {
+                return ResponseEntity.badRequest().body(sparse);
+            }
+        }
 
         CommentListResponse response = commentService.getCommentsByGroup(groupId, userId);
 
@@ -62,6 +86,22 @@ public class CommentController {
         }
     }
 
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamComments(
+            @PathVariable Long groupId,
+            @RequestHeader("User-Id") Long userId) {
+
+        CommentListResponse denied = commentService.checkGroupAccess(groupId, userId);
+        if (denied != null) {
+            return ResponseEntity.badRequest().body(denied);
+        }
+
+        StreamingResponseBody body = out -> commentService.writeCommentsByGroup(groupId, userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<CommentListResponse> getRecentComments(
             @PathVariable Long groupId,
@@ -76,6 +116,38 @@ public class CommentController {
         }
     }
 
+    @GetMapping("/threads")
+    public ResponseEntity<CommentThreadPageResponse> getThreads(
+            @PathVariable Long groupId,
+            @RequestHeader("User-Id") Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "3") int replies) {
+
+        CommentThreadPageResponse response = commentService.getThreadPage(groupId, userId, after, limit, replies);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{commentId}/thread")
+    public ResponseEntity<CommentListResponse> getThread(
+            @PathVariable Long groupId,
+            @PathVariable Long commentId,
+            @RequestHeader("User-Id") Long userId) {
+
+        CommentListResponse response = commentService.getThread(groupId, commentId, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PutMapping("/{commentId}")
     public ResponseEntity<?> updateComment(
             @PathVariable Long groupId,
@@ -93,7 +165,8 @@ public class CommentController {
                     .body(new ErrorResponse(errors, false));
         }
 
-        AuthenticationResponse response = commentService.updateComment(commentId, request, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(() -> commentService.findGroupIdForComment(commentId),
+                () -> commentService.updateComment(commentId, request, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -108,7 +181,8 @@ public class CommentController {
             @PathVariable Long commentId,
             @RequestHeader("User-Id") Long userId) {
 
-        AuthenticationResponse response = commentService.deleteComment(commentId, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(() -> commentService.findGroupIdForComment(commentId),
+                () -> commentService.deleteComment(commentId, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -3,16 +3,26 @@ package org.psk.demo.controllers;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.psk.demo.dto.request.CreateGroupRequest;
+import org.psk.demo.dto.request.InviteMembersRequest;
 import org.psk.demo.dto.response.ErrorResponse;
+import org.psk.demo.dto.response.GroupChangesResponse;
+import org.psk.demo.dto.response.GroupPurgeResponse;
+import org.psk.demo.dto.response.GroupFlowResponse;
 import org.psk.demo.dto.response.GroupResponse;
+import org.psk.demo.dto.response.GroupStatsResponse;
+import org.psk.demo.dto.response.InviteMembersResponse;
+import org.psk.demo.dto.response.MembershipCheckResponse;
 import org.psk.demo.services.GroupService;
+import org.psk.demo.services.SyncService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,6 +35,9 @@ public class GroupController {
     @Autowired
     private GroupService groupService;
 
+    @Autowired
+    private SyncService syncService;
+
     // Helper method to get user ID from session or header
     private Long getUserId(HttpSession session, String userIdHeader) {
         if (userIdHeader != null && !userIdHeader.isEmpty()) {
@@ -111,6 +124,72 @@ public class GroupController {
         }
     }
 
+    @GetMapping("/{groupId}/stats")
+    public ResponseEntity<?> getGroupStats(
+            @PathVariable Long groupId,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        GroupStatsResponse response = groupService.getGroupStats(groupId, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+    }
+
+    @GetMapping("/{groupId}/flow")
+    public ResponseEntity<?> getGroupFlow(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        GroupFlowResponse response = groupService.getGroupFlow(groupId, from, to, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{groupId}/changes")
+    public ResponseEntity<?> getChanges(
+            @PathVariable Long groupId,
+            @RequestParam(defaultValue = "0") long since,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        GroupChangesResponse response = syncService.getChangesSince(groupId, since, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+    }
+
     @PostMapping("/{groupId}/members")
     public ResponseEntity<?> addMember(
             @PathVariable Long groupId,
@@ -139,6 +218,60 @@ public class GroupController {
         }
     }
 
+    @PostMapping("/{groupId}/members/batch")
+    public ResponseEntity<?> inviteMembers(
+            @PathVariable Long groupId,
+            @Valid @RequestBody InviteMembersRequest request,
+            BindingResult bindingResult,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        if (bindingResult.hasErrors()) {
+            String errors = bindingResult.getFieldErrors()
+                    .stream()
+                    .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                    .collect(Collectors.joining(", "));
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse(errors, false));
+        }
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        InviteMembersResponse response = groupService.inviteMembers(groupId, request, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{groupId}/members/check")
+    public ResponseEntity<?> checkMembers(
+            @PathVariable Long groupId,
+            @RequestParam List<Long> userIds,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        MembershipCheckResponse response = groupService.checkMembers(groupId, userIds, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+    }
+
     @DeleteMapping("/{groupId}/members/{userIdToRemove}")
     public ResponseEntity<?> removeMember(
             @PathVariable Long groupId,
@@ -187,4 +320,25 @@ public class GroupController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    @GetMapping("/{groupId}/deletion")
+    public ResponseEntity<?> getDeletionProgress(
+            @PathVariable Long groupId,
+            HttpSession session,
+            @RequestHeader(value = "User-Id", required = false) String userIdHeader) {
+
+        Long userId = getUserId(session, userIdHeader);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ErrorResponse("User not authenticated", false));
+        }
+
+        GroupPurgeResponse response = groupService.getDeletionProgress(groupId, userId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package org.psk.demo.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.psk.demo.dto.response.ErrorResponse;
+import org.psk.demo.dto.response.TaskImportResponse;
+import org.psk.demo.services.ExportFormat;
+import org.psk.demo.services.GroupTransferService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}")
+@CrossOrigin(origins = "http://localhost:3000")
+public class GroupTransferController {
+
+    @Autowired
+    private GroupTransferService groupTransferService;
+
+    @GetMapping("/export/tasks")
+    public ResponseEntity<?> exportTasks(@PathVariable Long groupId,
+                                         @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                         @RequestHeader("User-Id") Long userId) {
+        if (!groupTransferService.canAccessGroup(groupId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ErrorResponse("Access denied! You are not a member of this group.", false));
+        }
+
+        StreamingResponseBody body = out -> groupTransferService.exportTasks(groupId, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
+    }
+
+    @GetMapping("/export/comments")
+    public ResponseEntity<?> exportComments(@PathVariable Long groupId,
+                                            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                            @RequestHeader("User-Id") Long userId) {
+        if (!groupTransferService.canAccessGroup(groupId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ErrorResponse("Access denied! You are not a member of this group.", false));
+        }
+
+        StreamingResponseBody body = out -> groupTransferService.exportComments(groupId, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
+    }
+
+    // The CSV is read straight from the request body, so uploads of any size stream into COPY
+    @PostMapping(value = "/import/tasks", consumes = "text/csv")
+    public ResponseEntity<?> importTasks(@PathVariable Long groupId,
+                                         @RequestHeader("User-Id") Long userId,
+                                         HttpServletRequest request) throws IOException {
+        if (!groupTransferService.canAccessGroup(groupId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ErrorResponse("Access denied! You are not a member of this group.", false));
+        }
+
+        TaskImportResponse response = groupTransferService.importTasks(groupId, userId, request.getInputStream());
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.psk.demo.controllers;
+
+import org.psk.demo.dto.response.CacheStatsResponse;
+import org.psk.demo.services.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:3000")
+public class StatsController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        CacheStatsResponse response = cacheStatsService.getCacheStats();
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package org.psk.demo.controllers;
 
 import jakarta.validation.Valid;
+import org.psk.demo.dto.request.MoveTaskRequest;
+import org.psk.demo.dto.request.SetParentRequest;
 import org.psk.demo.dto.request.TaskRequest;
 import org.psk.demo.dto.request.UpdateTaskRequest;
+import org.psk.demo.dto.response.ArchivedTaskPageResponse;
 import org.psk.demo.dto.response.AuthenticationResponse;
 import org.psk.demo.dto.response.ErrorResponse;
+import org.psk.demo.dto.response.SparseTaskListResponse;
+import org.psk.demo.dto.response.TaskHistoryResponse;
+import org.psk.demo.dto.response.TaskGraphResponse;
 import org.psk.demo.dto.response.TaskListResponse;
+import org.psk.demo.dto.response.TaskPageResponse;
+import org.psk.demo.dto.response.TaskProgressResponse;
 import org.psk.demo.dto.response.TaskResponse;
+import org.psk.demo.dto.response.TaskVersionResponse;
 import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.services.GroupWriteQueue;
+import org.psk.demo.services.TaskArchiveService;
+import org.psk.demo.services.TaskDependencyService;
+import org.psk.demo.services.TaskHierarchyService;
+import org.psk.demo.services.TaskHistoryService;
 import org.psk.demo.services.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -26,6 +44,21 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private GroupWriteQueue groupWriteQueue;
+
+    @Autowired
+    private TaskHistoryService taskHistoryService;
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private TaskHierarchyService taskHierarchyService;
+
     @PostMapping
     public ResponseEntity<?> createTask(@Valid @RequestBody TaskRequest taskRequest, BindingResult bindingResult, @RequestHeader("User-Id") Long userId) {
         if (bindingResult.hasErrors()) {
@@ -37,7 +70,8 @@ public class TaskController {
                     .body(new ErrorResponse(errors, false));
         }
 
-        AuthenticationResponse response = taskService.createTask(taskRequest, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(taskRequest.getGroupId(),
+                () -> taskService.createTask(taskRequest, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -60,7 +94,8 @@ public class TaskController {
                     .body(new ErrorResponse(errors, false));
         }
 
-        Object response = taskService.updateTask(taskId, request, userId);
+        Object response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.updateTask(taskId, request, userId));
 
         if (response instanceof TaskService.OptimisticLockResponse) {
             TaskService.OptimisticLockResponse lockResponse = (TaskService.OptimisticLockResponse) response;
@@ -80,7 +115,106 @@ public class TaskController {
     @DeleteMapping("/{taskId}")
     public ResponseEntity<?> deleteTask(@PathVariable Long taskId,
                                         @RequestHeader("User-Id") Long userId) {
-        AuthenticationResponse response = taskService.deleteTask(taskId, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.deleteTask(taskId, userId));
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PutMapping("/{taskId}/move")
+    public ResponseEntity<?> moveTask(@PathVariable Long taskId,
+                                      @RequestBody MoveTaskRequest request,
+                                      @RequestHeader("User-Id") Long userId) {
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.moveTask(taskId, request, userId));
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PutMapping("/{taskId}/parent")
+    public ResponseEntity<?> setParent(@PathVariable Long taskId,
+                                       @RequestBody SetParentRequest request,
+                                       @RequestHeader("User-Id") Long userId) {
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskHierarchyService.setParent(taskId, request.getParentId(), userId));
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{taskId}/subtree")
+    public ResponseEntity<TaskListResponse> getSubtree(@PathVariable Long taskId) {
+        TaskListResponse response = taskService.getSubtree(taskId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{taskId}/progress")
+    public ResponseEntity<TaskProgressResponse> getProgress(@PathVariable Long taskId) {
+        TaskProgressResponse response = taskHierarchyService.getProgress(taskId);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/{taskId}/dependencies/{dependsOnTaskId}")
+    public ResponseEntity<?> addDependency(@PathVariable Long taskId,
+                                           @PathVariable Long dependsOnTaskId,
+                                           @RequestHeader("User-Id") Long userId) {
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskDependencyService.addDependency(taskId, dependsOnTaskId, userId));
+
+        if (response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @DeleteMapping("/{taskId}/dependencies/{dependsOnTaskId}")
+    public ResponseEntity<?> removeDependency(@PathVariable Long taskId,
+                                              @PathVariable Long dependsOnTaskId,
+                                              @RequestHeader("User-Id") Long userId) {
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskDependencyService.removeDependency(taskId, dependsOnTaskId, userId));
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/mine")
+    public ResponseEntity<TaskPageResponse> getMyTasks(
+            @RequestHeader("User-Id") Long userId,
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDeadline,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int limit) {
+        TaskPageResponse response = taskService.getMyTasks(userId, status, groupId,
+                deadlineFrom, deadlineTo, afterDeadline, afterId, limit);
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -100,8 +234,38 @@ public class TaskController {
         }
     }
 
+    @GetMapping("/{taskId}/history")
+    public ResponseEntity<TaskHistoryResponse> getTaskHistory(@PathVariable Long taskId,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        TaskHistoryResponse response = taskHistoryService.getHistory(taskId, page, size);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{taskId}/history/{version}")
+    public ResponseEntity<TaskVersionResponse> getTaskVersion(@PathVariable Long taskId,
+                                                              @PathVariable Long version) {
+        TaskVersionResponse response = taskHistoryService.getVersion(taskId, version);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
     @GetMapping("/group/{groupId}")
-    public ResponseEntity<TaskListResponse> getTasksByGroup(@PathVariable Long groupId) {
+    public ResponseEntity<?> getTasksByGroup(@PathVariable Long groupId,
+                                             @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseTasks(groupId, null, fields);
+        }
+
         TaskListResponse response = taskService.getTasksByGroup(groupId);
 
         if (response.isSuccess()) {
@@ -111,9 +275,71 @@ public class TaskController {
         }
     }
 
+    @GetMapping("/group/{groupId}/archived")
+    public ResponseEntity<ArchivedTaskPageResponse> getArchivedTasks(@PathVariable Long groupId,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        ArchivedTaskPageResponse response = taskArchiveService.getArchivedTasks(groupId, page, size);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/archived/{taskId}/history")
+    public ResponseEntity<TaskHistoryResponse> getArchivedTaskHistory(@PathVariable Long taskId,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "20") int size) {
+        TaskHistoryResponse response = taskHistoryService.getArchivedHistory(taskId, page, size);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/group/{groupId}/dependencies/order")
+    public ResponseEntity<TaskGraphResponse> getDependencyOrder(@PathVariable Long groupId) {
+        return graphResponse(taskDependencyService.getTopologicalOrder(groupId));
+    }
+
+    @GetMapping("/group/{groupId}/dependencies/blocked")
+    public ResponseEntity<TaskGraphResponse> getBlockedTasks(@PathVariable Long groupId) {
+        return graphResponse(taskDependencyService.getBlockedTasks(groupId));
+    }
+
+    @GetMapping("/group/{groupId}/dependencies/critical-path")
+    public ResponseEntity<TaskGraphResponse> getCriticalPath(@PathVariable Long groupId) {
+        return graphResponse(taskDependencyService.getCriticalPath(groupId));
+    }
+
+    private ResponseEntity<TaskGraphResponse> graphResponse(TaskGraphResponse response) {
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/group/{groupId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamTasksByGroup(@PathVariable Long groupId) {
+        StreamingResponseBody body = out -> taskService.writeTasksByGroup(groupId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/group/{groupId}/status/{status}")
-    public ResponseEntity<TaskListResponse> getTasksByGroupAndStatus(@PathVariable Long groupId,
-                                                                     @PathVariable TaskStatus status) {
+    public ResponseEntity<?> getTasksByGroupAndStatus(@PathVariable Long groupId,
+                                                      @PathVariable TaskStatus status,
+                                                      @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return sparseTasks(groupId, status, fields);
+        }
+
         TaskListResponse response = taskService.getTasksByGroupAndStatus(groupId, status);
 
         if (response.isSuccess()) {
@@ -123,11 +349,22 @@ public class TaskController {
         }
     }
 
+    private ResponseEntity<SparseTaskListResponse> sparseTasks(Long groupId, TaskStatus status, String fields) {
+        SparseTaskListResponse response = taskService.getTasksByGroup(groupId, status, fields);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PutMapping("/{taskId}/assign/{assignedUserId}")
     public ResponseEntity<?> assignTask(@PathVariable Long taskId,
                                         @PathVariable Long assignedUserId,
                                         @RequestHeader("User-Id") Long userId) {
-        AuthenticationResponse response = taskService.assignTask(taskId, assignedUserId, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.assignTask(taskId, assignedUserId, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -142,7 +379,8 @@ public class TaskController {
         UpdateTaskRequest request = new UpdateTaskRequest();
         request.setAssignedUserId(null);
 
-        AuthenticationResponse response = taskService.updateTask(taskId, request, userId);
+        AuthenticationResponse response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.updateTask(taskId, request, userId));
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -166,7 +404,8 @@ public class TaskController {
         request.setStatus(status);
         request.setVersion(version);
 
-        Object response = taskService.updateTask(taskId, request, userId);
+        Object response = groupWriteQueue.execute(() -> taskService.findGroupIdForTask(taskId),
+                () -> taskService.updateTask(taskId, request, userId));
 
         if (response instanceof TaskService.OptimisticLockResponse) {
             TaskService.OptimisticLockResponse lockResponse = (TaskService.OptimisticLockResponse) response;
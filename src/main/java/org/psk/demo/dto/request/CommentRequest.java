@@ -13,4 +13,7 @@ public class CommentRequest {
     @NotBlank(message = "Comment content is required")
     @Size(max = 1000, message = "Comment must be less than 1000 characters")
     private String content;
+
+    // Comment being replied to; null posts a new top-level comment
+    private Long parentId;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.psk.demo.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InviteMembersRequest {
+
+    @NotEmpty(message = "At least one username is required")
+    @Size(max = 1000, message = "Cannot invite more than 1000 users at once")
+    private List<String> usernames;
+}
@@ -0,0 +1,14 @@
+package org.psk.demo.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveTaskRequest {
+
+    // The card the task is dropped below, in the same column; null moves it to the top
+    private Long afterTaskId;
+}
@@ -0,0 +1,14 @@
+package org.psk.demo.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetParentRequest {
+
+    // Task to become the parent, in the same group; null makes the task top-level
+    private Long parentId;
+}
@@ -28,4 +28,6 @@ public class TaskRequest {
     private Long groupId;
 
     private Long userId;
+
+    private Long parentId;
 }
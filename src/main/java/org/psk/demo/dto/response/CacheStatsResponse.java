@@ -0,0 +1,36 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private String message;
+    private List<RegionStats> regions;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private long queryCachePuts;
+    private boolean success;
+
+    // Constructor for error response
+    public CacheStatsResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RegionStats {
+        private String region;
+        private long hits;
+        private long misses;
+        private long puts;
+        private long entriesInMemory;
+    }
+}
@@ -20,4 +20,8 @@ public class CommentResponse {
     private boolean isEdited;
     private boolean canEdit; // Whether current user can edit this comment
     private boolean canDelete; // Whether current user can delete this comment
+    private Long parentId;
+    private String threadPath; // Sorting by this lists a thread depth-first
+    private int depth;
+    private int replyCount;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentThreadPageResponse {
+    private String message;
+    private List<CommentResponse> comments; // Each top-level comment followed by its first replies
+    private boolean hasMore;
+    private String nextAfter; // Cursor for the next page, null on the last one
+    private boolean success;
+
+    // Constructor for error response
+    public CommentThreadPageResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
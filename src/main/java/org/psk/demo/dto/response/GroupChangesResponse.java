@@ -0,0 +1,26 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupChangesResponse {
+    private String message;
+    private List<TaskResponse> tasks;
+    private List<CommentResponse> comments;
+    private List<Long> deletedTaskIds;
+    private List<Long> deletedCommentIds;
+    private long watermark; // Pass back as "since" on the next sync
+    private boolean success;
+
+    // Constructor for error response
+    public GroupChangesResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
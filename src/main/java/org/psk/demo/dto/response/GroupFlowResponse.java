@@ -0,0 +1,36 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupFlowResponse {
+    private String message;
+    private Long groupId;
+    private List<DayFlow> days;
+    private boolean success;
+
+    // Constructor for error response
+    public GroupFlowResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayFlow {
+        private LocalDate day;
+        private long todoTasks;
+        private long inProgressTasks;
+        private long doneTasks;
+        private long created;
+        private long completed;
+    }
+}
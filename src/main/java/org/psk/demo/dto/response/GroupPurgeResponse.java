@@ -0,0 +1,32 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupPurgeResponse {
+    private String message;
+    private Long groupId;
+    private String groupName;
+    private boolean completed;
+    private long tasksTotal;
+    private long tasksDeleted;
+    private long commentsTotal;
+    private long commentsDeleted;
+    private long membersTotal;
+    private long membersDeleted;
+    private LocalDateTime requestedAt;
+    private LocalDateTime completedAt;
+    private boolean success;
+
+    // Constructor for error response
+    public GroupPurgeResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
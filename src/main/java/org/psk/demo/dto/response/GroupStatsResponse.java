@@ -0,0 +1,26 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupStatsResponse {
+    private String message;
+    private Long groupId;
+    private long commentCount;
+    private long memberCount;
+    private long todoTasks;
+    private long inProgressTasks;
+    private long doneTasks;
+    private long totalTasks;
+    private boolean success;
+
+    // Constructor for error response
+    public GroupStatsResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
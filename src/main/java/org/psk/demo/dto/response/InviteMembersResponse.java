@@ -0,0 +1,33 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InviteMembersResponse {
+    private String message;
+    private Long groupId;
+    private List<InviteResult> results;
+    private int addedCount;
+    private boolean success;
+
+    // Constructor for error response
+    public InviteMembersResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InviteResult {
+        private String username;
+        private Long userId;
+        private String status; // ADDED, ALREADY_MEMBER or NOT_FOUND
+    }
+}
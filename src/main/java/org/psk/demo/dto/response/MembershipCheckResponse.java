@@ -0,0 +1,24 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MembershipCheckResponse {
+    private String message;
+    private Long groupId;
+    private List<Long> memberIds;
+    private long memberCount;
+    private boolean success;
+
+    // Constructor for error response
+    public MembershipCheckResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
@@ -0,0 +1,25 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// CommentListResponse with only the requested fields present on each comment
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SparseCommentListResponse {
+    private String message;
+    private List<Map<String, Object>> comments;
+    private int totalComments;
+    private boolean success;
+
+    // Constructor for error response
+    public SparseCommentListResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
@@ -0,0 +1,25 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// TaskListResponse with only the requested fields present on each task
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SparseTaskListResponse {
+    private String message;
+    private List<Map<String, Object>> tasks;
+    private int totalTasks;
+    private boolean success;
+
+    // Constructor for error response
+    public SparseTaskListResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
@@ -0,0 +1,37 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.psk.demo.entity.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskGraphResponse {
+    private String message;
+    private Long groupId;
+    private List<GraphTask> tasks;
+    private int totalTasks;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskGraphResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GraphTask {
+        private Long taskId;
+        private String title;
+        private TaskStatus status;
+        private LocalDateTime deadline;
+        private List<Long> dependsOn;
+    }
+}
@@ -0,0 +1,24 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistoryResponse {
+    private String message;
+    private List<TaskRevisionResponse> revisions;
+    private int page;
+    private boolean hasMore;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskHistoryResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
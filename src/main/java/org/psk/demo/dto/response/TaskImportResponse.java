@@ -0,0 +1,21 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskImportResponse {
+    private String message;
+    private long imported;
+    private long skipped;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskImportResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
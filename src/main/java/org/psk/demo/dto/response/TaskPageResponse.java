@@ -0,0 +1,26 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPageResponse {
+    private String message;
+    private List<TaskResponse> tasks;
+    private boolean hasMore;
+    private LocalDateTime nextAfterDeadline; // Cursor for the next page, null on the last one
+    private Long nextAfterId;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskPageResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
@@ -0,0 +1,25 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskProgressResponse {
+    private String message;
+    private Long taskId;
+    private long todoTasks;
+    private long inProgressTasks;
+    private long doneTasks;
+    private long totalSubtasks;
+    private double percentComplete;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskProgressResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
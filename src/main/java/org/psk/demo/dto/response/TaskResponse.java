@@ -25,4 +25,6 @@ public class TaskResponse {
     private String createdByUsername;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private String rank;
+    private Long parentId;
 }
@@ -0,0 +1,21 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.psk.demo.entity.TaskRevisionType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRevisionResponse {
+    private Long version;
+    private TaskRevisionType type;
+    private Map<String, Object> fields; // All tracked fields for a snapshot, only changed ones for a delta
+    private Long changedBy;
+    private String changedByUsername;
+    private LocalDateTime changedAt;
+}
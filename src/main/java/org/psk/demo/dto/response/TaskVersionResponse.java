@@ -0,0 +1,24 @@
+package org.psk.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskVersionResponse {
+    private String message;
+    private Long taskId;
+    private Long version;
+    private Map<String, Object> fields;
+    private boolean success;
+
+    // Constructor for error response
+    public TaskVersionResponse(String message, boolean success) {
+        this.message = message;
+        this.success = success;
+    }
+}
@@ -0,0 +1,58 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DONE task moved out of the hot tasks table by TaskArchiver. Rows keep their
+ * original id and are only ever written by the archiver's SQL.
+ */
+@Entity
+@Table(name = "archived_tasks", indexes = {
+        @Index(name = "idx_archived_tasks_group_updated", columnList = "group_id, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTask {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime deadline;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskStatus status;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_by", nullable = false)
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
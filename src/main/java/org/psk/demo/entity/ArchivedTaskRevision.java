@@ -0,0 +1,43 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// History of an archived task, moved alongside it with the original revision ids
+@Entity
+@Table(name = "archived_task_revisions", indexes = {
+        @Index(name = "idx_archived_task_revisions_task_version", columnList = "task_id, version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTaskRevision {
+    @Id
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskRevisionType type;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String fields;
+
+    @Column(name = "changed_by")
+    private Long changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -6,11 +6,16 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_group_change_seq", columnList = "group_id, change_seq"),
+        @Index(name = "idx_comments_group_thread_path", columnList = "group_id, thread_path"),
+        @Index(name = "idx_comments_group_depth_thread_path", columnList = "group_id, depth, thread_path")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +32,10 @@ public class Comment {
     @Size(max = 1000, message = "Comment must be less than 1000 characters")
     private String content;
 
-    @Column(name = "group_id", nullable = false)
+    // Hash partition key (see db/partition-by-group.sql); included in UPDATE and DELETE
+    // statements so they prune to one partition, and never changes after insert
+    @PartitionKey
+    @Column(name = "group_id", nullable = false, updatable = false)
     private Long groupId;
 
     @Column(name = "author_id", nullable = false)
@@ -42,6 +50,26 @@ public class Comment {
     @Column(name = "is_edited", nullable = false)
     private boolean isEdited = false;
 
+    // Position in the owning group's change sequence, used for delta sync
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    // Reply structure, fixed once written. The thread path is the parent's path followed
+    // by this comment's id as 16 hex digits, so a thread sorts depth-first with replies in
+    // posting order and any subtree is one range of idx_comments_group_thread_path
+    @Column(name = "parent_id", updatable = false)
+    private Long parentId;
+
+    @Column(name = "thread_path", updatable = false, columnDefinition = "varchar(1024) COLLATE \"C\"")
+    private String threadPath;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int depth;
+
+    // Direct replies; only changed by atomic increments in SQL
+    @Column(name = "reply_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int replyCount;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
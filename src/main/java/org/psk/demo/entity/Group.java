@@ -6,6 +6,10 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,6 +17,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "groups")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +45,7 @@ public class Group {
     private User creator;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "group_members",
             joinColumns = @JoinColumn(name = "group_id"),
@@ -46,6 +53,16 @@ public class Group {
     )
     private Set<User> members = new HashSet<>();
 
+    // Last allocated change sequence; only ever advanced in SQL by GroupChangeTracker, so
+    // the second-level cached copy is stale. Read it through GroupChangeTracker instead.
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false, updatable = false)
+    private Long changeSeq = 0L;
+
+    // Set in SQL when the group is deleted; GroupPurger removes the row once its data is gone
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,36 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A group's task counts per status at the end of one day, with the number of tasks
+ * created and completed that day. Written only by GroupFlowCompactor; days without
+ * any change have no row and carry the previous day's counts forward.
+ */
+@Entity
+@Table(name = "group_daily_flow")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupDailyFlow {
+    @EmbeddedId
+    private GroupDayId id;
+
+    @Column(name = "todo_tasks", nullable = false)
+    private long todoTasks;
+
+    @Column(name = "in_progress_tasks", nullable = false)
+    private long inProgressTasks;
+
+    @Column(name = "done_tasks", nullable = false)
+    private long doneTasks;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long completed;
+}
@@ -0,0 +1,22 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupDayId implements Serializable {
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "day")
+    private LocalDate day;
+}
@@ -0,0 +1,36 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Net change in a group's task counts on one day, incremented in SQL by
+ * GroupFlowService as tasks move between statuses. Folded into GroupDailyFlow and
+ * deleted by GroupFlowCompactor once the day is over.
+ */
+@Entity
+@Table(name = "group_flow_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupFlowDelta {
+    @EmbeddedId
+    private GroupDayId id;
+
+    @Column(name = "todo_delta", nullable = false)
+    private long todoDelta;
+
+    @Column(name = "in_progress_delta", nullable = false)
+    private long inProgressDelta;
+
+    @Column(name = "done_delta", nullable = false)
+    private long doneDelta;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long completed;
+}
@@ -0,0 +1,62 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of removing a deleted group's data. Created when the group is deleted;
+ * the counters and the last error are written in SQL by GroupPurger.
+ */
+@Entity
+@Table(name = "group_purges")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupPurge {
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "group_name", nullable = false)
+    private String groupName;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Column(name = "tasks_total", nullable = false)
+    private long tasksTotal;
+
+    @Column(name = "tasks_deleted", nullable = false)
+    private long tasksDeleted;
+
+    @Column(name = "comments_total", nullable = false)
+    private long commentsTotal;
+
+    @Column(name = "comments_deleted", nullable = false)
+    private long commentsDeleted;
+
+    @Column(name = "members_total", nullable = false)
+    private long membersTotal;
+
+    @Column(name = "members_deleted", nullable = false)
+    private long membersDeleted;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Why the last attempt stopped short, cleared once the purge completes
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        requestedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,42 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for one group, kept by GroupStatsService. The counters are only ever
+ * changed by atomic increments in SQL, in the same transaction as the write they count,
+ * and corrected now and then by a full recount.
+ */
+@Entity
+@Table(name = "group_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupStats {
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    @Column(name = "todo_tasks", nullable = false)
+    private long todoTasks;
+
+    @Column(name = "in_progress_tasks", nullable = false)
+    private long inProgressTasks;
+
+    @Column(name = "done_tasks", nullable = false)
+    private long doneTasks;
+
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+}
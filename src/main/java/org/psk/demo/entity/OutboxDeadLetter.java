@@ -0,0 +1,52 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event that subscribers kept rejecting, moved aside by OutboxRelay so the
+ * events behind it can be delivered. Keeps the original event id; replaying one is a
+ * matter of inserting it back into outbox_events.
+ */
+@Entity
+@Table(name = "outbox_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDeadLetter {
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false)
+    private ChangeEntityType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventType eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "dead_lettered_at", nullable = false)
+    private LocalDateTime deadLetteredAt;
+}
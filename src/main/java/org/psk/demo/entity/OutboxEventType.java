@@ -0,0 +1,10 @@
+package org.psk.demo.entity;
+
+public enum OutboxEventType {
+    TASK_CREATED,
+    TASK_UPDATED,
+    TASK_DELETED,
+    COMMENT_CREATED,
+    COMMENT_UPDATED,
+    COMMENT_DELETED
+}
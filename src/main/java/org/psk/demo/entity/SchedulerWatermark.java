@@ -0,0 +1,27 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far an in-process timer got before it last stopped: every event due up to
+ * {@code reachedAt} has been dispatched. Read back on startup so timers that fell due
+ * while the application was down still fire.
+ */
+@Entity
+@Table(name = "scheduler_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerWatermark {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "reached_at", nullable = false)
+    private LocalDateTime reachedAt;
+}
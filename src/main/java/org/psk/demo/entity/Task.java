@@ -7,11 +7,17 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_group_change_seq", columnList = "group_id, change_seq"),
+        @Index(name = "idx_tasks_user_status_deadline", columnList = "user_id, status, deadline"),
+        @Index(name = "idx_tasks_status_updated_at", columnList = "status, updated_at"),
+        @Index(name = "idx_tasks_group_status_rank", columnList = "group_id, status, rank")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,7 +46,10 @@ public class Task {
     @Column(nullable = false)
     private TaskStatus status = TaskStatus.TODO;
 
-    @Column(name = "group_id", nullable = false)
+    // Hash partition key (see db/partition-by-group.sql); included in UPDATE and DELETE
+    // statements so they prune to one partition, and never changes after insert
+    @PartitionKey
+    @Column(name = "group_id", nullable = false, updatable = false)
     private Long groupId;
 
     @Column(name = "user_id")
@@ -55,6 +64,20 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Position in the owning group's change sequence, used for delta sync
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    // Parent in the subtask hierarchy. Set on insert and afterwards only moved by
+    // TaskHierarchyService, which keeps task_closure and task_rollups in step
+    @Column(name = "parent_id", updatable = false)
+    private Long parentId;
+
+    // Manual position within the group's status column (see RankKeys). Set on insert and
+    // afterwards only written by SQL, so a stale entity can never undo a reorder or rebalance
+    @Column(name = "rank", updatable = false, columnDefinition = "varchar(255) COLLATE \"C\"")
+    private String rank;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
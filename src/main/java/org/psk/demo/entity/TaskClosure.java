@@ -0,0 +1,31 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ancestor/descendant pair of the subtask hierarchy, for every ancestor of a task
+ * and not only its parent, so a whole subtree is one range of the primary key. Tasks
+ * are not paired with themselves. Maintained in SQL by TaskHierarchyService.
+ */
+@Entity
+@Table(name = "task_closure", indexes = {
+        @Index(name = "idx_task_closure_descendant", columnList = "descendant_id"),
+        @Index(name = "idx_task_closure_group", columnList = "group_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskClosure {
+    @EmbeddedId
+    private TaskClosureId id;
+
+    // 1 for the parent, 2 for the grandparent and so on
+    @Column(nullable = false)
+    private int depth;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+}
@@ -0,0 +1,36 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One "blocked by" edge: the task cannot start until the task it depends on is done.
+ * Both tasks belong to the same group. There are no foreign keys to tasks, which is
+ * partitioned; rows are removed in SQL alongside the tasks they mention. Written and
+ * read through TaskDependencyService, which keeps TaskDependencyGraph in step.
+ */
+@Entity
+@Table(name = "task_dependencies", indexes = {
+        @Index(name = "idx_task_dependencies_group", columnList = "group_id"),
+        @Index(name = "idx_task_dependencies_depends_on", columnList = "depends_on_task_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDependency {
+    @EmbeddedId
+    private TaskDependencyId id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "created_by", nullable = false)
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
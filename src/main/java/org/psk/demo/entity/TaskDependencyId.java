@@ -0,0 +1,21 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDependencyId implements Serializable {
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "depends_on_task_id")
+    private Long dependsOnTaskId;
+}
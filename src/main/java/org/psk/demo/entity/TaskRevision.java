@@ -0,0 +1,45 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "task_revisions", indexes = {
+        @Index(name = "idx_task_revisions_task_version", columnList = "task_id, version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRevision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // Task version this revision brings the task to
+    @Column(nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskRevisionType type;
+
+    // JSON object: every tracked field for a snapshot, only the changed ones for a delta
+    @Column(nullable = false, columnDefinition = "text")
+    private String fields;
+
+    @Column(name = "changed_by")
+    private Long changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,6 @@
+package org.psk.demo.entity;
+
+public enum TaskRevisionType {
+    SNAPSHOT,
+    DELTA
+}
@@ -0,0 +1,36 @@
+package org.psk.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status counts over every task below one task in the subtask hierarchy, not counting
+ * the task itself. Only tasks that have or had subtasks get a row. Adjusted in SQL by
+ * TaskHierarchyService in the same transaction as the status or hierarchy change.
+ */
+@Entity
+@Table(name = "task_rollups", indexes = {
+        @Index(name = "idx_task_rollups_group", columnList = "group_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskRollup {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "todo_tasks", nullable = false)
+    private long todoTasks;
+
+    @Column(name = "in_progress_tasks", nullable = false)
+    private long inProgressTasks;
+
+    @Column(name = "done_tasks", nullable = false)
+    private long doneTasks;
+}
@@ -0,0 +1,14 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.ArchivedTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    List<ArchivedTask> findByGroupIdOrderByUpdatedAtDesc(Long groupId, Pageable pageable);
+}
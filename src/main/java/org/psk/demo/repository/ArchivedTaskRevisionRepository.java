@@ -0,0 +1,14 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.ArchivedTaskRevision;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedTaskRevisionRepository extends JpaRepository<ArchivedTaskRevision, Long> {
+
+    List<ArchivedTaskRevision> findByTaskIdOrderByVersionDesc(Long taskId, Pageable pageable);
+}
@@ -1,13 +1,17 @@
 package org.psk.demo.repository;
 
+import jakarta.persistence.QueryHint;
 import org.psk.demo.entity.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -16,6 +20,14 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByGroupIdOrderByCreatedAtAsc(Long groupId);
 
+    // Forward-only cursor over a group's comments; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT c FROM Comment c WHERE c.groupId = :groupId ORDER BY c.createdAt ASC")
+    Stream<Comment> streamByGroupId(@Param("groupId") Long groupId);
+
     List<Comment> findByAuthorIdOrderByCreatedAtDesc(Long authorId);
 
     long countByGroupId(Long groupId);
@@ -25,4 +37,39 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findRecentCommentsByGroupId(@Param("groupId") Long groupId, @Param("since") LocalDateTime since);
 
     void deleteByGroupId(Long groupId);
+
+    @Query("SELECT c.groupId FROM Comment c WHERE c.id = :commentId")
+    Optional<Long> findGroupIdById(@Param("commentId") Long commentId);
+
+    // A comment and all replies below it, depth-first; one range of idx_comments_group_thread_path
+    @Query("SELECT c FROM Comment c WHERE c.groupId = :groupId " +
+            "AND c.threadPath >= :from AND c.threadPath < :to ORDER BY c.threadPath")
+    List<Comment> findThreadRange(@Param("groupId") Long groupId, @Param("from") String from, @Param("to") String to);
+
+    /*
+     * A page of top-level comments after the :after path, each followed by its first
+     * :replies direct replies. Roots and replies are both ranges of
+     * idx_comments_group_depth_thread_path.
+     */
+    @Query(value = """
+            SELECT c.* FROM (
+                SELECT * FROM comments
+                WHERE group_id = :groupId AND depth = 0 AND thread_path > :after
+                ORDER BY thread_path LIMIT :limit
+            ) r
+            CROSS JOIN LATERAL (
+                SELECT r.*
+                UNION ALL
+                (SELECT x.* FROM comments x
+                 WHERE x.group_id = :groupId AND x.depth = 1
+                   AND x.thread_path > r.thread_path AND x.thread_path < r.thread_path || 'g'
+                 ORDER BY x.thread_path LIMIT :replies)
+            ) c
+            ORDER BY c.thread_path""", nativeQuery = true)
+    List<Comment> findThreadPage(@Param("groupId") Long groupId, @Param("after") String after,
+                                 @Param("limit") int limit, @Param("replies") int replies);
+
+    // Comments changed in the (since, until] window of a group's change sequence
+    @Query("SELECT c FROM Comment c WHERE c.groupId = :groupId AND c.changeSeq > :since AND c.changeSeq <= :until ORDER BY c.changeSeq")
+    List<Comment> findChangesBetween(@Param("groupId") Long groupId, @Param("since") long since, @Param("until") long until);
 }
\ No newline at end of file
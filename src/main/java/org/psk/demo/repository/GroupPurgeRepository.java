@@ -0,0 +1,13 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.GroupPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GroupPurgeRepository extends JpaRepository<GroupPurge, Long> {
+
+    List<GroupPurge> findByCompletedAtIsNullOrderByRequestedAtAsc();
+}
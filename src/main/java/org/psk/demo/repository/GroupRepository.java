@@ -1,9 +1,11 @@
 package org.psk.demo.repository;
 
+import jakarta.persistence.QueryHint;
 import org.psk.demo.entity.Group;
 import org.psk.demo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -27,6 +29,7 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Group> findGroupsByMember(@Param("user") User user);
 
     // Find all groups where user is either creator or member
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT DISTINCT g FROM Group g LEFT JOIN g.members m WHERE g.creator = :user OR m = :user ORDER BY g.createdAt DESC")
     List<Group> findGroupsByCreatorOrMember(@Param("user") User user);
 
@@ -0,0 +1,9 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.SchedulerWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchedulerWatermarkRepository extends JpaRepository<SchedulerWatermark, String> {
+}
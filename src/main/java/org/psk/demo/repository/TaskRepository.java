@@ -1,17 +1,23 @@
 package org.psk.demo.repository;
 
+import jakarta.persistence.QueryHint;
 import org.psk.demo.entity.Task;
 import org.psk.demo.entity.TaskStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
 
     List<Task> findByGroupId(Long groupId);
 
@@ -19,5 +25,38 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     List<Task> findByGroupIdOrderByDeadlineAsc(Long groupId);
 
+    // A board column in manual order; served by idx_tasks_group_status_rank
+    @Query("SELECT t FROM Task t WHERE t.groupId = :groupId AND t.status = :status ORDER BY t.rank ASC NULLS LAST, t.id ASC")
+    List<Task> findColumnByRank(@Param("groupId") Long groupId, @Param("status") TaskStatus status);
+
+    // Forward-only cursor over a group's tasks; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.groupId = :groupId ORDER BY t.deadline ASC")
+    Stream<Task> streamByGroupId(@Param("groupId") Long groupId);
+
     long countByGroupIdAndStatus(Long groupId, TaskStatus status);
+
+    @Query("SELECT t.groupId FROM Task t WHERE t.id = :taskId")
+    Optional<Long> findGroupIdById(@Param("taskId") Long taskId);
+
+    // Open tasks due up to :until, after the (deadline, id) keyset cursor; served by idx_tasks_open_deadline
+    @Query("SELECT t FROM Task t WHERE t.status <> org.psk.demo.entity.TaskStatus.DONE " +
+            "AND (t.deadline > :afterDeadline OR (t.deadline = :afterDeadline AND t.id > :afterId)) " +
+            "AND t.deadline <= :until ORDER BY t.deadline, t.id")
+    List<Task> findOpenTasksDueBetween(@Param("afterDeadline") LocalDateTime afterDeadline,
+                                       @Param("afterId") Long afterId,
+                                       @Param("until") LocalDateTime until,
+                                       Pageable pageable);
+
+    // Every task below the given one in the subtask hierarchy, nearest first; one range of the closure key
+    @Query("SELECT t FROM Task t, TaskClosure c WHERE c.id.ancestorId = :taskId " +
+            "AND t.groupId = c.groupId AND t.id = c.id.descendantId ORDER BY c.depth, t.deadline, t.id")
+    List<Task> findDescendants(@Param("taskId") Long taskId);
+
+    // Tasks changed in the (since, until] window of a group's change sequence
+    @Query("SELECT t FROM Task t WHERE t.groupId = :groupId AND t.changeSeq > :since AND t.changeSeq <= :until ORDER BY t.changeSeq")
+    List<Task> findChangesBetween(@Param("groupId") Long groupId, @Param("since") long since, @Param("until") long until);
 }
\ No newline at end of file
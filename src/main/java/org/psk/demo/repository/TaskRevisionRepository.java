@@ -0,0 +1,30 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.TaskRevision;
+import org.psk.demo.entity.TaskRevisionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskRevisionRepository extends JpaRepository<TaskRevision, Long> {
+
+    List<TaskRevision> findByTaskIdOrderByVersionDesc(Long taskId, Pageable pageable);
+
+    // Nearest snapshot at or below a version, the starting point for a rebuild
+    Optional<TaskRevision> findFirstByTaskIdAndTypeAndVersionLessThanEqualOrderByVersionDesc(
+            Long taskId, TaskRevisionType type, Long version);
+
+    List<TaskRevision> findByTaskIdAndVersionBetweenOrderByVersionAsc(Long taskId, Long fromVersion, Long toVersion);
+
+    // Latest snapshot version of each of these tasks that has one, as [taskId, version] pairs
+    @Query("SELECT r.taskId, MAX(r.version) FROM TaskRevision r WHERE r.taskId IN :taskIds " +
+            "AND r.type = org.psk.demo.entity.TaskRevisionType.SNAPSHOT GROUP BY r.taskId")
+    List<Object[]> findLatestSnapshotVersions(@Param("taskIds") Collection<Long> taskIds);
+}
@@ -0,0 +1,67 @@
+package org.psk.demo.repository;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.psk.demo.entity.Group;
+import org.psk.demo.entity.Task;
+import org.psk.demo.entity.TaskStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for task queries. Each one is skipped when its argument is null, so
+ * only the predicates a caller actually asked for reach the SQL.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> assignedTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<Task> hasStatus(TaskStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Task> inGroup(Long groupId) {
+        return (root, query, cb) -> groupId == null ? null : cb.equal(root.get("groupId"), groupId);
+    }
+
+    // Leaves out tasks of deleted groups that are still waiting to be purged
+    public static Specification<Task> inLiveGroup() {
+        return (root, query, cb) -> {
+            Subquery<Long> group = query.subquery(Long.class);
+            Root<Group> groups = group.from(Group.class);
+            group.select(groups.get("id"))
+                    .where(cb.equal(groups.get("id"), root.get("groupId")), cb.isNull(groups.get("deletedAt")));
+            return cb.exists(group);
+        };
+    }
+
+    public static Specification<Task> dueBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            if (from != null && to != null) {
+                return cb.between(root.get("deadline"), from, to);
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(root.get("deadline"), from);
+            }
+            return to == null ? null : cb.lessThanOrEqualTo(root.get("deadline"), to);
+        };
+    }
+
+    // Keyset cursor over (deadline, id); matches everything when no cursor is given
+    public static Specification<Task> after(LocalDateTime afterDeadline, Long afterId) {
+        return (root, query, cb) -> {
+            if (afterDeadline == null || afterId == null) {
+                return null;
+            }
+            return cb.or(
+                    cb.greaterThan(root.get("deadline"), afterDeadline),
+                    cb.and(cb.equal(root.get("deadline"), afterDeadline), cb.greaterThan(root.get("id"), afterId)));
+        };
+    }
+}
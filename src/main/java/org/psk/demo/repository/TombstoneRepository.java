@@ -0,0 +1,17 @@
+package org.psk.demo.repository;
+
+import org.psk.demo.entity.Tombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    // Deletions recorded in the (since, until] window of a group's change sequence
+    @Query("SELECT t FROM Tombstone t WHERE t.groupId = :groupId AND t.changeSeq > :since AND t.changeSeq <= :until ORDER BY t.changeSeq")
+    List<Tombstone> findChangesBetween(@Param("groupId") Long groupId, @Param("since") long since, @Param("until") long until);
+}
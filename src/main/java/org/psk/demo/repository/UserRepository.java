@@ -1,13 +1,19 @@
 package org.psk.demo.repository;
 
 import org.psk.demo.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+    List<User> findByUsernameIn(Collection<String> usernames);
 }
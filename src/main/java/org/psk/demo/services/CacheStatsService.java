@@ -0,0 +1,59 @@
+package org.psk.demo.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.psk.demo.dto.response.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports Hibernate second-level and query cache counters since startup.
+ */
+@Service
+public class CacheStatsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public CacheStatsResponse getCacheStats() {
+        try {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+            Arrays.sort(regionNames);
+
+            List<CacheStatsResponse.RegionStats> regions = new ArrayList<>(regionNames.length);
+            for (String regionName : regionNames) {
+                CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+                if (region == null) {
+                    continue;
+                }
+                regions.add(new CacheStatsResponse.RegionStats(
+                        regionName,
+                        region.getHitCount(),
+                        region.getMissCount(),
+                        region.getPutCount(),
+                        region.getElementCountInMemory()
+                ));
+            }
+
+            return new CacheStatsResponse(
+                    statistics.isStatisticsEnabled() ? "Cache statistics retrieved successfully"
+                            : "Statistics are disabled; set app.jpa.statistics-enabled=true",
+                    regions,
+                    statistics.getQueryCacheHitCount(),
+                    statistics.getQueryCacheMissCount(),
+                    statistics.getQueryCachePutCount(),
+                    true
+            );
+        } catch (Exception e) {
+            return new CacheStatsResponse("Could not retrieve cache statistics! " + e.getMessage(), false);
+        }
+    }
+}
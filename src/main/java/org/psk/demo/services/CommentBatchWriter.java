@@ -0,0 +1,292 @@
+package org.psk.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.psk.demo.dto.request.CommentRequest;
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.psk.demo.entity.Comment;
+import org.psk.demo.entity.OutboxEventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for comment posts. Posts arriving within a few milliseconds of
+ * each other are checked for access with one query and written with one multi-row
+ * insert and one commit, instead of a lookup-heavy transaction per comment. Only
+ * top-level comments come through here; replies need their parent's path and count.
+ * bench/comment-batch-writer/run.sh compares it with the one-transaction-per-post path.
+ */
+@Component
+public class CommentBatchWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private RecentCommentsCache recentCommentsCache;
+
+    @Autowired
+    private GroupStatsService groupStatsService;
+
+    @Value("${app.comment-batch-writer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.comment-batch-writer.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${app.comment-batch-writer.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    private final BlockingQueue<PendingComment> queue = new LinkedBlockingQueue<>();
+
+    private Thread flusher;
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            flusher = Thread.ofVirtual()
+                    .name("comment-batch-writer")
+                    .start(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a comment post; the future completes with the generated comment id once
+     * the batch containing it has committed.
+     */
+    public CompletableFuture<AuthenticationResponse> submit(Long groupId, CommentRequest request, Long userId) {
+        PendingComment pending = new PendingComment(groupId, userId, request.getContent(), LocalDateTime.now());
+        queue.add(pending);
+        return pending.result;
+    }
+
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingComment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.addAll(queue);
+            batch.forEach(pending -> pending.result.complete(
+                    new AuthenticationResponse("Could not post comment! Server is shutting down.", null, null, false)));
+        }
+    }
+
+    private void flush(List<PendingComment> batch) {
+        List<AuthenticationResponse> responses;
+        try {
+            responses = transactionTemplate.execute(status -> writeBatch(batch));
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.complete(
+                    new AuthenticationResponse("Could not post comment! " + e.getMessage(), null, null, false)));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(responses.get(i));
+        }
+    }
+
+    private List<AuthenticationResponse> writeBatch(List<PendingComment> batch) {
+        Map<Author, String> rejections = checkAccess(batch);
+
+        List<PendingComment> accepted = batch.stream()
+                .filter(pending -> !rejections.containsKey(pending.author()))
+                .toList();
+
+        Map<PendingComment, Long> ids = insert(accepted);
+
+        List<AuthenticationResponse> responses = new ArrayList<>(batch.size());
+        for (PendingComment pending : batch) {
+            String rejection = rejections.get(pending.author());
+            if (rejection != null) {
+                responses.add(new AuthenticationResponse(rejection, null, null, false));
+            } else {
+                responses.add(new AuthenticationResponse("Comment posted successfully!", null, ids.get(pending), true));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Resolves user existence, group existence and membership for every distinct
+     * author in the batch with a single query.
+     */
+    private Map<Author, String> checkAccess(List<PendingComment> batch) {
+        Set<Author> authors = new LinkedHashSet<>();
+        batch.forEach(pending -> authors.add(pending.author()));
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT p.group_id, p.user_id,
+                       u.id IS NOT NULL AS user_exists,
+                       g.id IS NOT NULL AS group_exists,
+                       (g.creator_id = p.user_id OR EXISTS (
+                           SELECT 1 FROM group_members gm
+                           WHERE gm.group_id = p.group_id AND gm.user_id = p.user_id)) AS is_member
+                FROM (VALUES\s""");
+        List<Object> args = new ArrayList<>(authors.size() * 2);
+        for (Author author : authors) {
+            sql.append(args.isEmpty() ? "" : ", ").append("(?::bigint, ?::bigint)");
+            args.add(author.groupId());
+            args.add(author.userId());
+        }
+        sql.append("""
+                ) AS p(group_id, user_id)
+                LEFT JOIN users u ON u.id = p.user_id
+                LEFT JOIN groups g ON g.id = p.group_id AND g.deleted_at IS NULL""");
+
+        Map<Author, String> rejections = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Author author = new Author(rs.getLong("group_id"), rs.getLong("user_id"));
+            if (!rs.getBoolean("user_exists")) {
+                rejections.put(author, "User not found!");
+            } else if (!rs.getBoolean("group_exists")) {
+                rejections.put(author, "Group not found!");
+            } else if (!rs.getBoolean("is_member")) {
+                rejections.put(author, "You must be a member of this group to comment!");
+            }
+        }, args.toArray());
+        return rejections;
+    }
+
+    /**
+     * Reserves ids from the comments sequence up front so the multi-row insert does not
+     * depend on the order rows come back from RETURNING.
+     */
+    private Map<PendingComment, Long> insert(List<PendingComment> accepted) {
+        Map<PendingComment, Long> ids = new HashMap<>();
+        if (accepted.isEmpty()) {
+            return ids;
+        }
+
+        List<Long> reserved = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('comments', 'id')) FROM generate_series(1, ?)",
+                Long.class, accepted.size());
+
+        // Every comment a batch posts to a group shares one step of its change sequence
+        Map<Long, Long> changeSeqs = new HashMap<>();
+        accepted.forEach(pending -> changeSeqs.computeIfAbsent(pending.groupId(), changeTracker::nextChangeSeq));
+
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO comments (id, version, content, group_id, author_id, created_at, updated_at, is_edited, change_seq, thread_path, depth, reply_count) VALUES ");
+        List<Object> args = new ArrayList<>(accepted.size() * 8);
+        List<Comment> comments = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingComment pending = accepted.get(i);
+            Long id = reserved.get(i);
+            ids.put(pending, id);
+            comments.add(pending.toComment(id, changeSeqs.get(pending.groupId())));
+
+            sql.append(i == 0 ? "" : ", ").append("(?, 0, ?, ?, ?, ?, ?, false, ?, ?, 0, 0)");
+            args.add(id);
+            args.add(pending.content());
+            args.add(pending.groupId());
+            args.add(pending.userId());
+            args.add(pending.submittedAt());
+            args.add(pending.submittedAt());
+            args.add(changeSeqs.get(pending.groupId()));
+            args.add(CommentService.threadKey(id));
+        }
+
+        jdbcTemplate.update(sql.toString(), args.toArray());
+
+        Map<Long, Long> added = new HashMap<>();
+        accepted.forEach(pending -> added.merge(pending.groupId(), 1L, Long::sum));
+        added.forEach(groupStatsService::adjustComments);
+        outboxService.recordComments(OutboxEventType.COMMENT_CREATED, comments);
+        TransactionHooks.afterCommit(() -> comments.forEach(recentCommentsCache::commentSaved));
+        return ids;
+    }
+
+    private record Author(Long groupId, Long userId) {
+    }
+
+    private record PendingComment(Long groupId, Long userId, String content, LocalDateTime submittedAt,
+                                  CompletableFuture<AuthenticationResponse> result) {
+
+        private PendingComment(Long groupId, Long userId, String content, LocalDateTime submittedAt) {
+            this(groupId, userId, content, submittedAt, new CompletableFuture<>());
+        }
+
+        private Author author() {
+            return new Author(groupId, userId);
+        }
+
+        // The row as inserted, for consumers that expect a Comment
+        private Comment toComment(Long id, Long changeSeq) {
+            Comment comment = new Comment();
+            comment.setId(id);
+            comment.setVersion(0L);
+            comment.setContent(content);
+            comment.setGroupId(groupId);
+            comment.setAuthorId(userId);
+            comment.setCreatedAt(submittedAt);
+            comment.setUpdatedAt(submittedAt);
+            comment.setChangeSeq(changeSeq);
+            comment.setThreadPath(CommentService.threadKey(id));
+            return comment;
+        }
+
+        // Identity semantics: two identical posts in one batch are still two comments
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -4,25 +4,66 @@ import org.psk.demo.dto.request.CommentRequest;
 import org.psk.demo.dto.response.AuthenticationResponse;
 import org.psk.demo.dto.response.CommentListResponse;
 import org.psk.demo.dto.response.CommentResponse;
+import org.psk.demo.dto.response.CommentThreadPageResponse;
+import org.psk.demo.dto.response.SparseCommentListResponse;
+import org.psk.demo.entity.ChangeEntityType;
 import org.psk.demo.entity.Comment;
 import org.psk.demo.entity.Group;
+import org.psk.demo.entity.OutboxEventType;
 import org.psk.demo.entity.User;
 import org.psk.demo.repository.CommentRepository;
 import org.psk.demo.repository.GroupRepository;
+import org.psk.demo.repository.SparseFieldRepository;
 import org.psk.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CommentService {
 
+    // Fields of CommentResponse that can be requested with ?fields=, and the columns behind them
+    private static final SparseFieldset COMMENT_FIELDS = SparseFieldset.builder()
+            .field("id", "id")
+            .field("content", "content")
+            .field("groupId", "groupId")
+            .field("authorId", "authorId")
+            .field("authorUsername", "authorId")
+            .field("createdAt", "createdAt")
+            .field("updatedAt", "updatedAt")
+            .field("edited", "isEdited")
+            .field("canEdit", "authorId")
+            .field("canDelete", "authorId")
+            .field("parentId", "parentId")
+            .field("threadPath", "threadPath")
+            .field("depth", "depth")
+            .field("replyCount", "replyCount")
+            .build();
+
+    private static final int MAX_THREAD_PAGE_SIZE = 100;
+
+    private static final int MAX_THREAD_PAGE_REPLIES = 20;
+
+    // Sorts after every hex digit, so path..path + THREAD_END covers a whole thread
+    private static final String THREAD_END = "g";
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -32,6 +73,35 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JsonListStreamer jsonListStreamer;
+
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Autowired
+    private RecentCommentsCache recentCommentsCache;
+
+    @Autowired
+    private GroupStatsService groupStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.comments.max-depth:32}")
+    private int maxDepth;
+
+    // A comment's own step of the thread path; fixed width so paths sort like ids
+    static String threadKey(long commentId) {
+        return String.format("%016x", commentId);
+    }
+
     public AuthenticationResponse createComment(Long groupId, CommentRequest request, Long userId) {
         try {
             // Verify user exists
@@ -54,17 +124,60 @@ public class CommentService {
                 return new AuthenticationResponse("You must be a member of this group to comment!", null, null, false);
             }
 
+            // A reply must stay in the parent's group and within the nesting limit
+            Comment parent = null;
+            if (request.getParentId() != null) {
+                parent = commentRepository.findById(request.getParentId())
+                        .filter(found -> found.getGroupId().equals(groupId))
+                        .orElse(null);
+                if (parent == null) {
+                    return new AuthenticationResponse("Parent comment not found!", null, null, false);
+                }
+                if (parent.getDepth() >= maxDepth) {
+                    return new AuthenticationResponse("Replies cannot be nested more than " + maxDepth + " levels deep!", null, null, false);
+                }
+            }
+
+            // Taken only once the request is known to be valid, and held just for the writes
+            long changeSeq = changeTracker.nextChangeSeq(groupId);
+
+            // The parent may have been deleted while this request was being checked
+            if (parent != null && !commentRepository.existsById(parent.getId())) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return new AuthenticationResponse("Parent comment not found!", null, null, false);
+            }
+
             // Create the comment
             Comment comment = new Comment();
             comment.setContent(request.getContent());
             comment.setGroupId(groupId);
             comment.setAuthorId(userId);
+            comment.setChangeSeq(changeSeq);
+            if (parent != null) {
+                comment.setParentId(parent.getId());
+                comment.setDepth(parent.getDepth() + 1);
+            }
 
             Comment savedComment = commentRepository.save(comment);
 
+            // The path needs the generated id
+            String threadPath = (parent != null ? parent.getThreadPath() : "") + threadKey(savedComment.getId());
+            jdbcTemplate.update("UPDATE comments SET thread_path = ? WHERE group_id = ? AND id = ?",
+                    threadPath, groupId, savedComment.getId());
+            savedComment.setThreadPath(threadPath);
+
+            if (parent != null) {
+                adjustReplyCount(groupId, parent.getId(), 1, changeSeq);
+            }
+            groupStatsService.adjustComments(groupId, 1);
+            outboxService.recordComment(OutboxEventType.COMMENT_CREATED, savedComment);
+            TransactionHooks.afterCommit(() -> recentCommentsCache.commentSaved(savedComment, user.getUsername()));
+
             return new AuthenticationResponse("Comment posted successfully!", null, savedComment.getId(), true);
 
         } catch (Exception e) {
+            // Nothing written before the failure may commit behind a failure response
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return new AuthenticationResponse("Could not post comment! " + e.getMessage(), null, null, false);
         }
     }
@@ -85,11 +198,17 @@ public class CommentService {
 
             // Update the comment content
             comment.setContent(request.getContent());
-            commentRepository.save(comment);
+            comment.setChangeSeq(changeTracker.nextChangeSeq(comment.getGroupId()));
+            // Flushed so the event carries the row as written, with its new version
+            Comment savedComment = commentRepository.saveAndFlush(comment);
+            outboxService.recordComment(OutboxEventType.COMMENT_UPDATED, savedComment);
+            TransactionHooks.afterCommit(() -> recentCommentsCache.commentSaved(savedComment));
 
             return new AuthenticationResponse("Comment updated successfully!", null, commentId, true);
 
         } catch (Exception e) {
+            // Nothing written before the failure may commit behind a failure response
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return new AuthenticationResponse("Could not update comment! " + e.getMessage(), null, null, false);
         }
     }
@@ -119,11 +238,32 @@ public class CommentService {
                 return new AuthenticationResponse("You can only delete your own comments or comments in groups you created!", null, null, false);
             }
 
-            commentRepository.delete(comment);
+            Long groupId = comment.getGroupId();
+            long changeSeq = changeTracker.nextChangeSeq(groupId);
+
+            // Replies go with the comment they answer. Read under the group's lock, so a
+            // reply committed since the comment was loaded is included
+            List<Comment> removed = comment.getThreadPath() != null
+                    ? commentRepository.findThreadRange(groupId, comment.getThreadPath(), comment.getThreadPath() + THREAD_END)
+                    : List.of(comment);
+
+            commentRepository.deleteAll(removed);
+            for (Comment deleted : removed) {
+                changeTracker.recordDeletion(groupId, ChangeEntityType.COMMENT, deleted.getId());
+            }
+            groupStatsService.adjustComments(groupId, -removed.size());
+            outboxService.recordComments(OutboxEventType.COMMENT_DELETED, removed);
+            if (comment.getParentId() != null) {
+                adjustReplyCount(groupId, comment.getParentId(), -1, changeSeq);
+            }
+            TransactionHooks.afterCommit(() -> removed.forEach(deleted ->
+                    recentCommentsCache.commentDeleted(groupId, deleted.getId())));
 
             return new AuthenticationResponse("Comment deleted successfully!", null, commentId, true);
 
         } catch (Exception e) {
+            // Nothing written before the failure may commit behind a failure response
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return new AuthenticationResponse("Could not delete comment! " + e.getMessage(), null, null, false);
         }
     }
@@ -162,6 +302,181 @@ public class CommentService {
         }
     }
 
+    /**
+     * Lists the group's comments with only the requested fields, selecting just the
+     * columns they need and looking up author names only if asked for
+     */
+    @Transactional(readOnly = true)
+    public SparseCommentListResponse getCommentsByGroup(Long groupId, Long userId, String fields) {
+        try {
+            Set<String> requested = COMMENT_FIELDS.parse(fields);
+
+            CommentListResponse denied = checkGroupAccess(groupId, userId);
+            if (denied != null) {
+                return new SparseCommentListResponse(denied.getMessage(), false);
+            }
+            Long groupCreatorId = groupRepository.findById(groupId).get().getCreator().getId();
+
+            Specification<Comment> inGroup = (root, query, cb) -> cb.equal(root.get("groupId"), groupId);
+            List<Map<String, Object>> rows = sparseFieldRepository.findAll(
+                    Comment.class, COMMENT_FIELDS.attributesFor(requested), inGroup, "createdAt");
+
+            Map<Long, String> usernames = new HashMap<>();
+            if (requested.contains("authorUsername")) {
+                Set<Long> authorIds = rows.stream()
+                        .map(row -> (Long) row.get("authorId"))
+                        .collect(Collectors.toSet());
+                userRepository.findAllById(authorIds)
+                        .forEach(user -> usernames.put(user.getId(), user.getUsername()));
+            }
+
+            List<Map<String, Object>> comments = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Long authorId = (Long) row.get("authorId");
+                Map<String, Object> comment = new LinkedHashMap<>();
+                for (String field : requested) {
+                    comment.put(field, switch (field) {
+                        case "authorUsername" -> usernames.get(authorId);
+                        case "edited" -> row.get("isEdited");
+                        case "canEdit" -> authorId.equals(userId);
+                        case "canDelete" -> authorId.equals(userId) || groupCreatorId.equals(userId);
+                        default -> row.get(field);
+                    });
+                }
+                comments.add(comment);
+            }
+
+            return new SparseCommentListResponse("Comments retrieved successfully!", comments, comments.size(), true);
+
+        } catch (Exception e) {
+            return new SparseCommentListResponse("Could not retrieve comments! " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Checks that the user may read the group's comments; returns null if allowed
+     */
+    @Transactional(readOnly = true)
+    public CommentListResponse checkGroupAccess(Long groupId, Long userId) {
+        Optional<Group> groupOpt = groupRepository.findById(groupId);
+        if (groupOpt.isEmpty()) {
+            return new CommentListResponse("Group not found!", null, 0, false);
+        }
+
+        Optional<User> userOpt = userRepository.findById(userId);
+        if (userOpt.isEmpty()) {
+            return new CommentListResponse("User not found!", null, 0, false);
+        }
+
+        Group group = groupOpt.get();
+        User user = userOpt.get();
+        if (!group.isMember(user) && !group.isCreator(user)) {
+            return new CommentListResponse("Access denied! You are not a member of this group.", null, 0, false);
+        }
+
+        return null;
+    }
+
+    /**
+     * Streams the group's comments to {@code out} in the CommentListResponse shape without
+     * holding them in memory. Access must have been checked with checkGroupAccess first.
+     */
+    @Transactional(readOnly = true)
+    public void writeCommentsByGroup(Long groupId, Long userId, OutputStream out) throws IOException {
+        Long groupCreatorId = groupRepository.findById(groupId)
+                .map(group -> group.getCreator().getId())
+                .orElseThrow(() -> new IllegalStateException("Group not found"));
+
+        jsonListStreamer.write(out, "Comments retrieved successfully!", "comments", "totalComments",
+                commentRepository.streamByGroupId(groupId),
+                comment -> convertToCommentResponse(comment, userId, groupCreatorId));
+    }
+
+    /**
+     * A comment with every reply below it, depth-first, read as one range of thread paths
+     */
+    @Transactional(readOnly = true)
+    public CommentListResponse getThread(Long groupId, Long commentId, Long userId) {
+        try {
+            CommentListResponse denied = checkGroupAccess(groupId, userId);
+            if (denied != null) {
+                return denied;
+            }
+
+            Optional<Comment> commentOpt = commentRepository.findById(commentId)
+                    .filter(comment -> comment.getGroupId().equals(groupId));
+            if (commentOpt.isEmpty()) {
+                return new CommentListResponse("Comment not found!", null, 0, false);
+            }
+
+            String threadPath = commentOpt.get().getThreadPath();
+            List<Comment> comments = threadPath != null
+                    ? commentRepository.findThreadRange(groupId, threadPath, threadPath + THREAD_END)
+                    : List.of(commentOpt.get());
+
+            Long groupCreatorId = groupRepository.findById(groupId).get().getCreator().getId();
+            List<CommentResponse> commentResponses = comments.stream()
+                    .map(comment -> convertToCommentResponse(comment, userId, groupCreatorId))
+                    .collect(Collectors.toList());
+
+            return new CommentListResponse("Thread retrieved successfully!", commentResponses, commentResponses.size(), true);
+
+        } catch (Exception e) {
+            return new CommentListResponse("Could not retrieve thread! " + e.getMessage(), null, 0, false);
+        }
+    }
+
+    /**
+     * Pages through the group's top-level comments in posting order, each followed by its
+     * first {@code replies} direct replies, keyed by the last top-level thread path
+     */
+    @Transactional(readOnly = true)
+    public CommentThreadPageResponse getThreadPage(Long groupId, Long userId, String after, int limit, int replies) {
+        try {
+            CommentListResponse denied = checkGroupAccess(groupId, userId);
+            if (denied != null) {
+                return new CommentThreadPageResponse(denied.getMessage(), false);
+            }
+
+            int pageSize = Math.min(Math.max(limit, 1), MAX_THREAD_PAGE_SIZE);
+            int replyCount = Math.min(Math.max(replies, 0), MAX_THREAD_PAGE_REPLIES);
+
+            // Fetch one extra top-level comment to learn whether another page exists
+            List<Comment> comments = commentRepository.findThreadPage(groupId, after != null ? after : "",
+                    pageSize + 1, replyCount);
+
+            int roots = 0;
+            int end = comments.size();
+            for (int i = 0; i < comments.size(); i++) {
+                if (comments.get(i).getDepth() == 0 && ++roots > pageSize) {
+                    end = i;
+                    break;
+                }
+            }
+            boolean hasMore = end < comments.size();
+            comments = comments.subList(0, end);
+
+            String nextAfter = null;
+            if (hasMore) {
+                for (Comment comment : comments) {
+                    if (comment.getDepth() == 0) {
+                        nextAfter = comment.getThreadPath();
+                    }
+                }
+            }
+
+            Long groupCreatorId = groupRepository.findById(groupId).get().getCreator().getId();
+            List<CommentResponse> commentResponses = comments.stream()
+                    .map(comment -> convertToCommentResponse(comment, userId, groupCreatorId))
+                    .collect(Collectors.toList());
+
+            return new CommentThreadPageResponse("Threads retrieved successfully!", commentResponses, hasMore, nextAfter, true);
+
+        } catch (Exception e) {
+            return new CommentThreadPageResponse("Could not retrieve threads! " + e.getMessage(), false);
+        }
+    }
+
     @Transactional(readOnly = true)
     public CommentListResponse getRecentCommentsByGroup(Long groupId, Long userId) {
         try {
@@ -182,8 +497,17 @@ public class CommentService {
                 return new CommentListResponse("Access denied! You are not a member of this group.", null, 0, false);
             }
 
-            // Get recent comments (last 24 hours)
+            // Get recent comments (last 24 hours), from memory when the group's buffer covers them
             LocalDateTime since = LocalDateTime.now().minusHours(24);
+            Long groupCreatorId = group.getCreator().getId();
+            List<RecentCommentsCache.RecentComment> recent = recentCommentsCache.getSince(groupId, since);
+            if (recent != null) {
+                List<CommentResponse> commentResponses = recent.stream()
+                        .map(comment -> convertToCommentResponse(comment, groupId, userId, groupCreatorId))
+                        .collect(Collectors.toList());
+                return new CommentListResponse("Recent comments retrieved successfully!", commentResponses, commentResponses.size(), true);
+            }
+
             List<Comment> comments = commentRepository.findRecentCommentsByGroupId(groupId, since);
 
             List<CommentResponse> commentResponses = comments.stream()
@@ -197,9 +521,47 @@ public class CommentService {
         }
     }
 
-    @Transactional(readOnly = true)
     public long getCommentCountByGroup(Long groupId) {
-        return commentRepository.countByGroupId(groupId);
+        return groupStatsService.getStats(groupId).getCommentCount();
+    }
+
+    /**
+     * Returns comments changed in the (since, until] window of the group's change sequence
+     */
+    @Transactional(readOnly = true)
+    public List<CommentResponse> getCommentsChangedBetween(Long groupId, long since, long until,
+                                                           Long userId, Long groupCreatorId) {
+        List<Comment> comments = since > 0
+                ? commentRepository.findChangesBetween(groupId, since, until)
+                : commentRepository.findByGroupIdOrderByCreatedAtAsc(groupId);
+        return comments.stream()
+                .map(comment -> convertToCommentResponse(comment, userId, groupCreatorId))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Long findGroupIdForComment(Long commentId) {
+        return commentRepository.findGroupIdById(commentId).orElse(null);
+    }
+
+    private CommentResponse convertToCommentResponse(RecentCommentsCache.RecentComment comment, Long groupId,
+                                                     Long currentUserId, Long groupCreatorId) {
+        return new CommentResponse(
+                comment.id(),
+                comment.content(),
+                groupId,
+                comment.authorId(),
+                comment.authorUsername(),
+                comment.createdAt(),
+                comment.updatedAt(),
+                comment.edited(),
+                comment.authorId().equals(currentUserId),
+                comment.authorId().equals(currentUserId) || groupCreatorId.equals(currentUserId),
+                comment.parentId(),
+                comment.threadPath(),
+                comment.depth(),
+                comment.replyCount()
+        );
     }
 
     private CommentResponse convertToCommentResponse(Comment comment, Long currentUserId, Long groupCreatorId) {
@@ -211,6 +573,10 @@ public class CommentService {
         response.setCreatedAt(comment.getCreatedAt());
         response.setUpdatedAt(comment.getUpdatedAt());
         response.setEdited(comment.isEdited());
+        response.setParentId(comment.getParentId());
+        response.setThreadPath(comment.getThreadPath());
+        response.setDepth(comment.getDepth());
+        response.setReplyCount(comment.getReplyCount());
 
         // Set author username
         userRepository.findById(comment.getAuthorId())
@@ -222,4 +588,15 @@ public class CommentService {
 
         return response;
     }
-}
\ No newline at end of file
+
+    // The parent's reply count moves with the change; the cache takes the new absolute value
+    private void adjustReplyCount(Long groupId, Long parentId, int delta, long changeSeq) {
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "UPDATE comments SET reply_count = reply_count + ?, change_seq = ? WHERE group_id = ? AND id = ? RETURNING reply_count",
+                Integer.class, delta, changeSeq, groupId, parentId);
+        if (!counts.isEmpty()) {
+            int replyCount = counts.get(0);
+            TransactionHooks.afterCommit(() -> recentCommentsCache.replyCountChanged(groupId, parentId, replyCount));
+        }
+    }
+}
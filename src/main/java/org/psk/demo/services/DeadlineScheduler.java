@@ -0,0 +1,364 @@
+package org.psk.demo.services;
+
+import jakarta.annotation.PreDestroy;
+import org.psk.demo.entity.SchedulerWatermark;
+import org.psk.demo.entity.Task;
+import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.repository.SchedulerWatermarkRepository;
+import org.psk.demo.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process timer for task deadlines. Only tasks due within the upcoming window are
+ * held in memory, ordered in a heap by when they next need attention; the window is
+ * topped up periodically from the open-task deadline index, so nothing ever scans the whole
+ * tasks table and a restart only reloads the window. TaskService keeps the heap in
+ * step with creates, updates and deletes.
+ * <p>
+ * Each task has a single live heap entry for its next event. How far dispatching has
+ * got is saved as a watermark on every refill and on shutdown, and the first window
+ * after a restart is loaded from it, so tasks that fell due while the application was
+ * down still get their events. After a crash the events since the last saved
+ * watermark are sent a second time.
+ */
+@Component
+public class DeadlineScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineScheduler.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SchedulerWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.deadlines.due-soon-lead-minutes:60}")
+    private long dueSoonLeadMinutes;
+
+    @Value("${app.deadlines.window-hours:24}")
+    private long windowHours;
+
+    @Value("${app.deadlines.load-page-size:1000}")
+    private int loadPageSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition headChanged = lock.newCondition();
+
+    private static final String WATERMARK_NAME = "deadlines";
+
+    // Entries that can no longer fire before the heap is rebuilt from the live ones
+    private static final int STALE_ENTRY_SLACK = 64;
+
+    // Superseded entries are skipped when they surface, and dropped in bulk by compact()
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparing(Entry::fireAt));
+    // Each tracked task's one live heap entry
+    private final Map<Long, Entry> tracked = new HashMap<>();
+
+    private LocalDateTime loadedUntil;
+    // When the event being published right now was due, null when none is
+    private LocalDateTime inFlight;
+    private Thread dispatcher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime reachedAt = watermarkRepository.findById(WATERMARK_NAME)
+                .map(SchedulerWatermark::getReachedAt)
+                .filter(watermark -> watermark.isBefore(now))
+                .orElse(now);
+        loadWindow(reachedAt, now.plusHours(windowHours), reachedAt);
+
+        dispatcher = Thread.ofVirtual()
+                .name("deadline-scheduler")
+                .start(this::dispatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            saveWatermark();
+        }
+    }
+
+    /**
+     * Extends the in-memory window so it always reaches the configured horizon.
+     */
+    @Scheduled(fixedDelayString = "${app.deadlines.refill-interval-ms:600000}")
+    public void refill() {
+        LocalDateTime from;
+        lock.lock();
+        try {
+            from = loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+
+        if (from != null) {
+            loadWindow(from, LocalDateTime.now().plusHours(windowHours), null);
+            saveWatermark();
+        }
+    }
+
+    /**
+     * Re-reads the whole current window, for writes that bypass track(), such as bulk imports.
+     */
+    public void reloadWindow() {
+        LocalDateTime until;
+        lock.lock();
+        try {
+            until = loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+
+        if (until != null) {
+            loadWindow(LocalDateTime.now(), until, null);
+        }
+    }
+
+    /**
+     * Starts, moves or stops timers for a task after it has been written.
+     */
+    public void track(Task task) {
+        lock.lock();
+        try {
+            Entry existing = tracked.get(task.getId());
+            if (existing != null && existing.task().version() > task.getVersion()) {
+                return;
+            }
+
+            // Done and already overdue tasks need no timer; tasks past the window are picked up by refill()
+            if (loadedUntil == null
+                    || task.getStatus() == TaskStatus.DONE
+                    || !task.getDeadline().isAfter(LocalDateTime.now())
+                    || task.getDeadline().isAfter(loadedUntil)) {
+                tracked.remove(task.getId());
+                compact();
+                return;
+            }
+
+            schedule(new Tracked(task.getId(), task.getGroupId(), task.getDeadline(), task.getVersion()), null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void untrack(Long taskId) {
+        lock.lock();
+        try {
+            tracked.remove(taskId);
+            compact();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops every reminder for a group's tasks, e.g. once the group is deleted
+    public void untrackGroup(Long groupId) {
+        lock.lock();
+        try {
+            tracked.values().removeIf(entry -> entry.task().groupId().equals(groupId));
+            compact();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTrackedCount() {
+        lock.lock();
+        try {
+            return tracked.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads open tasks with deadlines in (from, to] a page at a time, walking the
+     * deadline index with a keyset cursor. Due-soon reminders that fell due by
+     * {@code dueSoonSentUntil} were sent before the last shutdown and are not repeated.
+     */
+    private void loadWindow(LocalDateTime from, LocalDateTime to, LocalDateTime dueSoonSentUntil) {
+        // Widen the window first so writes racing with the load are tracked directly
+        lock.lock();
+        try {
+            if (loadedUntil == null || to.isAfter(loadedUntil)) {
+                loadedUntil = to;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        LocalDateTime afterDeadline = from;
+        long afterId = Long.MAX_VALUE;
+
+        while (true) {
+            List<Task> page = taskRepository.findOpenTasksDueBetween(
+                    afterDeadline, afterId, to, PageRequest.of(0, loadPageSize));
+
+            lock.lock();
+            try {
+                for (Task task : page) {
+                    Entry existing = tracked.get(task.getId());
+                    if (existing == null || existing.task().version() < task.getVersion()) {
+                        schedule(new Tracked(task.getId(), task.getGroupId(), task.getDeadline(), task.getVersion()),
+                                dueSoonSentUntil);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (page.size() < loadPageSize) {
+                return;
+            }
+            Task last = page.get(page.size() - 1);
+            afterDeadline = last.getDeadline();
+            afterId = last.getId();
+        }
+    }
+
+    // Caller must hold the lock
+    private void schedule(Tracked task, LocalDateTime dueSoonSentUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueSoonAt = task.deadline().minusMinutes(dueSoonLeadMinutes);
+
+        Entry entry;
+        if (task.deadline().isAfter(now) && (dueSoonSentUntil == null || dueSoonAt.isAfter(dueSoonSentUntil))) {
+            entry = new Entry(dueSoonAt.isAfter(now) ? dueSoonAt : now, TaskDeadlineEvent.Type.DUE_SOON, task);
+        } else {
+            entry = new Entry(task.deadline(), TaskDeadlineEvent.Type.OVERDUE, task);
+        }
+        push(entry);
+    }
+
+    // Caller must hold the lock
+    private void push(Entry entry) {
+        tracked.put(entry.task().taskId(), entry);
+        heap.add(entry);
+        compact();
+        headChanged.signal();
+    }
+
+    // Rebuilds the heap from the live entries once superseded ones outnumber them; caller must hold the lock
+    private void compact() {
+        if (heap.size() > 2 * tracked.size() + STALE_ENTRY_SLACK) {
+            heap.clear();
+            heap.addAll(tracked.values());
+            headChanged.signal();
+        }
+    }
+
+    /**
+     * Saves the point up to which every event has been dispatched: the earliest of now,
+     * the head of the heap and the event being published.
+     */
+    private void saveWatermark() {
+        LocalDateTime reachedAt = LocalDateTime.now();
+        lock.lock();
+        try {
+            Entry head = heap.peek();
+            if (head != null && head.fireAt().isBefore(reachedAt)) {
+                reachedAt = head.fireAt();
+            }
+            if (inFlight != null && inFlight.isBefore(reachedAt)) {
+                reachedAt = inFlight;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            watermarkRepository.save(new SchedulerWatermark(WATERMARK_NAME, reachedAt));
+        } catch (RuntimeException e) {
+            // The next refill tries again; a stale watermark only repeats events after a restart
+            log.warn("Could not save the deadline watermark at {}", reachedAt, e);
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while (true) {
+                TaskDeadlineEvent event = nextEvent();
+                try {
+                    eventPublisher.publishEvent(event);
+                } catch (RuntimeException e) {
+                    // A failing listener must not stop the timer for everyone else
+                    log.error("A listener failed on the {} event of task {}", event.type(), event.taskId(), e);
+                } finally {
+                    lock.lock();
+                    try {
+                        inFlight = null;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TaskDeadlineEvent nextEvent() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Entry head = heap.peek();
+                if (head == null) {
+                    headChanged.await();
+                    continue;
+                }
+
+                long waitNanos = Duration.between(LocalDateTime.now(), head.fireAt()).toNanos();
+                if (waitNanos > 0) {
+                    headChanged.awaitNanos(waitNanos);
+                    continue;
+                }
+
+                heap.poll();
+                Tracked task = head.task();
+                if (tracked.get(task.taskId()) != head) {
+                    continue;
+                }
+                if (head.type() == TaskDeadlineEvent.Type.OVERDUE) {
+                    tracked.remove(task.taskId());
+                } else {
+                    push(new Entry(task.deadline(), TaskDeadlineEvent.Type.OVERDUE, task));
+                }
+                inFlight = head.fireAt();
+                return new TaskDeadlineEvent(task.taskId(), task.groupId(), task.deadline(), head.type());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Tracked(Long taskId, Long groupId, LocalDateTime deadline, long version) {
+    }
+
+    private record Entry(LocalDateTime fireAt, TaskDeadlineEvent.Type type, Tracked task) {
+    }
+}
@@ -0,0 +1,59 @@
+package org.psk.demo.services;
+
+import org.psk.demo.entity.ChangeEntityType;
+import org.psk.demo.entity.Tombstone;
+import org.psk.demo.repository.TombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Hands out a monotonically increasing change sequence per group. Advancing the
+ * sequence takes the group's row lock until the surrounding transaction commits, so
+ * changes within a group become visible in sequence order and a reader that has seen
+ * sequence N can never later find a committed change below N.
+ */
+@Service
+public class GroupChangeTracker {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    /**
+     * Allocates the next change sequence for a group. Must be called inside the
+     * transaction that writes the change. Fails for a missing or deleted group, so no
+     * write can land in a group whose rows the purger is removing.
+     */
+    public long nextChangeSeq(Long groupId) {
+        List<Long> seq = jdbcTemplate.queryForList(
+                "UPDATE groups SET change_seq = change_seq + 1 WHERE id = ? AND deleted_at IS NULL RETURNING change_seq",
+                Long.class, groupId);
+        if (seq.isEmpty()) {
+            throw new IllegalStateException("Group " + groupId + " does not exist or is being deleted");
+        }
+        return seq.get(0);
+    }
+
+    public long currentChangeSeq(Long groupId) {
+        List<Long> seq = jdbcTemplate.queryForList(
+                "SELECT change_seq FROM groups WHERE id = ?", Long.class, groupId);
+        return seq.isEmpty() ? 0L : seq.get(0);
+    }
+
+    /**
+     * Records a deletion so clients syncing from an older watermark learn about it.
+     */
+    public void recordDeletion(Long groupId, ChangeEntityType entityType, Long entityId) {
+        Tombstone tombstone = new Tombstone();
+        tombstone.setGroupId(groupId);
+        tombstone.setEntityType(entityType);
+        tombstone.setEntityId(entityId);
+        tombstone.setChangeSeq(nextChangeSeq(groupId));
+        tombstoneRepository.save(tombstone);
+    }
+}
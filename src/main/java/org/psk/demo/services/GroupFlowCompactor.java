@@ -0,0 +1,102 @@
+package org.psk.demo.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Nightly fold of each group's finished days from group_flow_deltas into absolute
+ * end-of-day rows in group_daily_flow. A group is compacted in one transaction that
+ * first locks its row, the same lock task writes take, so the counts it reads cannot
+ * move underneath it. The first compaction of a group also writes a starting row for
+ * the day before its first delta.
+ */
+@Component
+public class GroupFlowCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupFlowCompactor.class);
+
+    private static final String FIND_GROUPS = """
+            SELECT DISTINCT d.group_id FROM group_flow_deltas d
+            JOIN groups g ON g.id = d.group_id AND g.deleted_at IS NULL
+            WHERE d.day < current_date""";
+
+    private static final String WRITE_DAY = """
+            INSERT INTO group_daily_flow (group_id, day, todo_tasks, in_progress_tasks, done_tasks, created, completed)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (group_id, day) DO UPDATE SET
+                todo_tasks = EXCLUDED.todo_tasks,
+                in_progress_tasks = EXCLUDED.in_progress_tasks,
+                done_tasks = EXCLUDED.done_tasks,
+                created = group_daily_flow.created + EXCLUDED.created,
+                completed = group_daily_flow.completed + EXCLUDED.completed""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupFlowService groupFlowService;
+
+    @Value("${app.group-flow.compact-enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${app.group-flow.compact-cron:0 15 2 * * *}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+
+        for (Long groupId : jdbcTemplate.queryForList(FIND_GROUPS, Long.class)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compactGroup(groupId));
+            } catch (RuntimeException e) {
+                // Deltas stay in place; the next run folds them in
+                log.error("Could not compact flow deltas of group {}; retrying on the next run", groupId, e);
+            }
+        }
+    }
+
+    private void compactGroup(Long groupId) {
+        jdbcTemplate.queryForList("SELECT id FROM groups WHERE id = ? FOR UPDATE", Long.class, groupId);
+        LocalDate today = jdbcTemplate.queryForObject("SELECT current_date", LocalDate.class);
+
+        List<GroupFlowService.DayCounts> deltas = groupFlowService.findDeltas(groupId);
+        List<GroupFlowService.DayCounts> latest = jdbcTemplate.query("""
+                SELECT day, todo_tasks, in_progress_tasks, done_tasks, created, completed
+                FROM group_daily_flow WHERE group_id = ? ORDER BY day DESC LIMIT 1""",
+                GroupFlowService.DAY_COUNTS, groupId);
+
+        GroupFlowService.DayCounts state;
+        if (latest.isEmpty()) {
+            state = groupFlowService.startingCounts(groupId, deltas);
+            write(groupId, state);
+        } else {
+            state = latest.get(0);
+        }
+
+        for (GroupFlowService.DayCounts delta : deltas) {
+            if (delta.day().isBefore(today)) {
+                state = state.plus(delta);
+                write(groupId, state);
+            }
+        }
+
+        jdbcTemplate.update("DELETE FROM group_flow_deltas WHERE group_id = ? AND day < ?", groupId, today);
+    }
+
+    private void write(Long groupId, GroupFlowService.DayCounts day) {
+        jdbcTemplate.update(WRITE_DAY, groupId, day.day(), day.todo(), day.inProgress(), day.done(),
+                day.created(), day.completed());
+    }
+}
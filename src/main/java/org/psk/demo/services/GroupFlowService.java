@@ -0,0 +1,174 @@
+package org.psk.demo.services;
+
+import org.psk.demo.dto.response.GroupFlowResponse;
+import org.psk.demo.entity.TaskStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-group, per-day task flow for burndown and cumulative-flow charts. Task status
+ * transitions add to today's row in group_flow_deltas inside the writing transaction;
+ * GroupFlowCompactor folds finished days into absolute end-of-day counts in
+ * group_daily_flow. A chart reads the snapshot rows in range plus the few deltas not
+ * compacted yet.
+ */
+@Service
+public class GroupFlowService {
+
+    private static final String RECORD = """
+            INSERT INTO group_flow_deltas (group_id, day, todo_delta, in_progress_delta, done_delta, created, completed)
+            VALUES (?, current_date, ?, ?, ?, ?, ?)
+            ON CONFLICT (group_id, day) DO UPDATE SET
+                todo_delta = group_flow_deltas.todo_delta + EXCLUDED.todo_delta,
+                in_progress_delta = group_flow_deltas.in_progress_delta + EXCLUDED.in_progress_delta,
+                done_delta = group_flow_deltas.done_delta + EXCLUDED.done_delta,
+                created = group_flow_deltas.created + EXCLUDED.created,
+                completed = group_flow_deltas.completed + EXCLUDED.completed""";
+
+    private static final String DAY_COLUMNS = "day, todo_tasks, in_progress_tasks, done_tasks, created, completed";
+
+    // Also used for delta rows, whose columns are selected under the same names
+    static final RowMapper<DayCounts> DAY_COUNTS = (rs, rowNum) -> new DayCounts(
+            rs.getObject("day", LocalDate.class),
+            rs.getLong("todo_tasks"),
+            rs.getLong("in_progress_tasks"),
+            rs.getLong("done_tasks"),
+            rs.getLong("created"),
+            rs.getLong("completed"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * One day of a group's flow: absolute end-of-day counts for a snapshot row, or
+     * the day's net change for a delta row.
+     */
+    record DayCounts(LocalDate day, long todo, long inProgress, long done, long created, long completed) {
+
+        DayCounts plus(DayCounts delta) {
+            return new DayCounts(delta.day, todo + delta.todo, inProgress + delta.inProgress,
+                    done + delta.done, delta.created, delta.completed);
+        }
+
+        DayCounts minus(DayCounts delta) {
+            return new DayCounts(day, todo - delta.todo, inProgress - delta.inProgress,
+                    done - delta.done, 0, 0);
+        }
+
+        GroupFlowResponse.DayFlow toDayFlow(LocalDate on, boolean withActivity) {
+            return new GroupFlowResponse.DayFlow(on, todo, inProgress, done,
+                    withActivity ? created : 0, withActivity ? completed : 0);
+        }
+    }
+
+    /**
+     * Records one task moving between statuses; {@code from} is null for a new task and
+     * {@code to} is null for a removed one. Must run in the transaction of the change.
+     */
+    public void taskStatusChanged(Long groupId, TaskStatus from, TaskStatus to) {
+        if (from == to) {
+            return;
+        }
+        jdbcTemplate.update(RECORD, groupId,
+                delta(TaskStatus.TODO, from, to),
+                delta(TaskStatus.IN_PROGRESS, from, to),
+                delta(TaskStatus.DONE, from, to),
+                from == null ? 1 : 0,
+                to == TaskStatus.DONE ? 1 : 0);
+    }
+
+    /**
+     * Daily counts for {@code from} through {@code to}, one entry per day. Days without a
+     * row carry the previous counts forward with nothing created or completed.
+     */
+    @Transactional(readOnly = true)
+    public List<GroupFlowResponse.DayFlow> getFlow(Long groupId, LocalDate from, LocalDate to) {
+        List<DayCounts> deltas = findDeltas(groupId);
+
+        List<DayCounts> before = jdbcTemplate.query(
+                "SELECT " + DAY_COLUMNS + " FROM group_daily_flow WHERE group_id = ? AND day < ? ORDER BY day DESC LIMIT 1",
+                DAY_COUNTS, groupId, from);
+        List<DayCounts> snapshots = jdbcTemplate.query(
+                "SELECT " + DAY_COLUMNS + " FROM group_daily_flow WHERE group_id = ? AND day BETWEEN ? AND ? ORDER BY day",
+                DAY_COUNTS, groupId, from, to);
+
+        // Counts at the end of the day before the range
+        DayCounts state;
+        if (!before.isEmpty()) {
+            state = before.get(0);
+        } else if (!snapshots.isEmpty()) {
+            // History starts inside the range; earlier days show the first known counts
+            state = snapshots.get(0);
+        } else {
+            state = startingCounts(groupId, deltas);
+        }
+        for (DayCounts delta : deltas) {
+            if (delta.day().isBefore(from) && delta.day().isAfter(state.day())) {
+                state = state.plus(delta);
+            }
+        }
+
+        Map<LocalDate, DayCounts> snapshotsByDay = new HashMap<>();
+        snapshots.forEach(snapshot -> snapshotsByDay.put(snapshot.day(), snapshot));
+        Map<LocalDate, DayCounts> deltasByDay = new HashMap<>();
+        deltas.forEach(delta -> deltasByDay.put(delta.day(), delta));
+
+        List<GroupFlowResponse.DayFlow> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DayCounts snapshot = snapshotsByDay.get(day);
+            DayCounts delta = deltasByDay.get(day);
+            if (snapshot != null) {
+                state = snapshot;
+                days.add(state.toDayFlow(day, true));
+            } else if (delta != null) {
+                state = state.plus(delta);
+                days.add(state.toDayFlow(day, true));
+            } else {
+                days.add(state.toDayFlow(day, false));
+            }
+        }
+        return days;
+    }
+
+    List<DayCounts> findDeltas(Long groupId) {
+        return jdbcTemplate.query("""
+                SELECT day, todo_delta AS todo_tasks, in_progress_delta AS in_progress_tasks,
+                       done_delta AS done_tasks, created, completed
+                FROM group_flow_deltas WHERE group_id = ? ORDER BY day""", DAY_COUNTS, groupId);
+    }
+
+    /**
+     * Counts before the first recorded delta, for groups with no snapshot yet: the live
+     * counts with every delta taken back out. Archived tasks still count as done.
+     */
+    DayCounts startingCounts(Long groupId, List<DayCounts> deltas) {
+        DayCounts live = jdbcTemplate.queryForObject("""
+                SELECT current_date - 1 AS day,
+                       count(*) FILTER (WHERE status = 'TODO') AS todo_tasks,
+                       count(*) FILTER (WHERE status = 'IN_PROGRESS') AS in_progress_tasks,
+                       count(*) FILTER (WHERE status = 'DONE')
+                           + (SELECT count(*) FROM archived_tasks WHERE group_id = ?) AS done_tasks,
+                       0 AS created, 0 AS completed
+                FROM tasks WHERE group_id = ?""", DAY_COUNTS, groupId, groupId);
+
+        DayCounts start = live;
+        for (DayCounts delta : deltas) {
+            start = start.minus(delta);
+        }
+        LocalDate day = deltas.isEmpty() ? live.day() : deltas.get(0).day().minusDays(1);
+        return new DayCounts(day, start.todo(), start.inProgress(), start.done(), 0, 0);
+    }
+
+    private static int delta(TaskStatus status, TaskStatus from, TaskStatus to) {
+        return (to == status ? 1 : 0) - (from == status ? 1 : 0);
+    }
+}
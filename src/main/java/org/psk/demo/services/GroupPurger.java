@@ -0,0 +1,149 @@
+package org.psk.demo.services;
+
+import org.psk.demo.entity.GroupPurge;
+import org.psk.demo.repository.GroupPurgeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second phase of group deletion: removes a deleted group's rows table by table in
+ * chunks of {@code batch-size}, each chunk in its own short transaction, pausing between
+ * chunks so a huge group does not crowd out normal traffic. A run stops after
+ * {@code max-run-ms} and the next run carries on where it left off. The group row
+ * itself goes last, once nothing refers to it. The scheduler pool is sized so a run
+ * does not delay the other scheduled jobs (spring.task.scheduling.pool.size).
+ */
+@Component
+public class GroupPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupPurger.class);
+
+    /*
+     * Every step takes (groupId, batchSize, groupId) and deletes at most one batch.
+     * Revisions go with the task rows that own them, since they are only indexed by task.
+     */
+    private enum PurgeStep {
+        DEPENDENCIES(null, """
+                WITH batch AS (SELECT task_id, depends_on_task_id FROM task_dependencies WHERE group_id = ? LIMIT ?)
+                DELETE FROM task_dependencies WHERE group_id = ?
+                AND (task_id, depends_on_task_id) IN (SELECT task_id, depends_on_task_id FROM batch)"""),
+        CLOSURE(null, """
+                WITH batch AS (SELECT ancestor_id, descendant_id FROM task_closure WHERE group_id = ? LIMIT ?)
+                DELETE FROM task_closure WHERE group_id = ?
+                AND (ancestor_id, descendant_id) IN (SELECT ancestor_id, descendant_id FROM batch)"""),
+        ROLLUPS(null, """
+                WITH batch AS (SELECT task_id FROM task_rollups WHERE group_id = ? LIMIT ?)
+                DELETE FROM task_rollups WHERE group_id = ? AND task_id IN (SELECT task_id FROM batch)"""),
+        TASKS("tasks_deleted", """
+                WITH batch AS (SELECT id FROM tasks WHERE group_id = ? LIMIT ?),
+                revisions AS (DELETE FROM task_revisions WHERE task_id IN (SELECT id FROM batch))
+                DELETE FROM tasks WHERE group_id = ? AND id IN (SELECT id FROM batch)"""),
+        ARCHIVED_TASKS(null, """
+                WITH batch AS (SELECT id FROM archived_tasks WHERE group_id = ? LIMIT ?),
+                revisions AS (DELETE FROM archived_task_revisions WHERE task_id IN (SELECT id FROM batch))
+                DELETE FROM archived_tasks WHERE group_id = ? AND id IN (SELECT id FROM batch)"""),
+        COMMENTS("comments_deleted", """
+                WITH batch AS (SELECT id FROM comments WHERE group_id = ? LIMIT ?)
+                DELETE FROM comments WHERE group_id = ? AND id IN (SELECT id FROM batch)"""),
+        TOMBSTONES(null, """
+                WITH batch AS (SELECT id FROM tombstones WHERE group_id = ? LIMIT ?)
+                DELETE FROM tombstones WHERE group_id = ? AND id IN (SELECT id FROM batch)"""),
+        MEMBERS("members_deleted", """
+                WITH batch AS (SELECT user_id FROM group_members WHERE group_id = ? LIMIT ?)
+                DELETE FROM group_members WHERE group_id = ? AND user_id IN (SELECT user_id FROM batch)""");
+
+        private final String counterColumn;
+        private final String sql;
+
+        PurgeStep(String counterColumn, String sql) {
+            this.counterColumn = counterColumn;
+            this.sql = sql;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupPurgeRepository groupPurgeRepository;
+
+    @Value("${app.group-purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.group-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.group-purge.pause-ms:50}")
+    private long pauseMs;
+
+    @Value("${app.group-purge.max-run-ms:5000}")
+    private long maxRunMs;
+
+    @Scheduled(fixedDelayString = "${app.group-purge.interval-ms:10000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxRunMs);
+        try {
+            for (GroupPurge purge : groupPurgeRepository.findByCompletedAtIsNullOrderByRequestedAtAsc()) {
+                try {
+                    if (!purgeGroup(purge.getGroupId(), deadline)) {
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    // Finished chunks stay committed; the next run picks up from there
+                    log.error("Could not purge group {}; retrying on the next run", purge.getGroupId(), e);
+                    jdbcTemplate.update("UPDATE group_purges SET last_error = ? WHERE group_id = ?",
+                            String.valueOf(e), purge.getGroupId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns false once the run is out of time
+    private boolean purgeGroup(Long groupId, long deadline) throws InterruptedException {
+        for (PurgeStep step : PurgeStep.values()) {
+            Integer deleted;
+            do {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                deleted = transactionTemplate.execute(status -> purgeBatch(groupId, step));
+                Thread.sleep(pauseMs);
+            } while (deleted != null && deleted == batchSize);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM group_stats WHERE group_id = ?", groupId);
+            jdbcTemplate.update("DELETE FROM group_flow_deltas WHERE group_id = ?", groupId);
+            jdbcTemplate.update("DELETE FROM group_daily_flow WHERE group_id = ?", groupId);
+            jdbcTemplate.update("DELETE FROM groups WHERE id = ? AND deleted_at IS NOT NULL", groupId);
+            jdbcTemplate.update("UPDATE group_purges SET completed_at = now(), last_error = NULL WHERE group_id = ?", groupId);
+        });
+        return true;
+    }
+
+    private int purgeBatch(Long groupId, PurgeStep step) {
+        int deleted = jdbcTemplate.update(step.sql, groupId, batchSize, groupId);
+        if (deleted > 0 && step.counterColumn != null) {
+            jdbcTemplate.update("UPDATE group_purges SET " + step.counterColumn + " = " + step.counterColumn
+                    + " + ? WHERE group_id = ?", deleted, groupId);
+        }
+        return deleted;
+    }
+}
@@ -1,29 +1,79 @@
 package org.psk.demo.services;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.psk.demo.dto.request.CreateGroupRequest;
+import org.psk.demo.dto.request.InviteMembersRequest;
+import org.psk.demo.dto.response.GroupPurgeResponse;
+import org.psk.demo.dto.response.GroupFlowResponse;
 import org.psk.demo.dto.response.GroupResponse;
+import org.psk.demo.dto.response.GroupStatsResponse;
+import org.psk.demo.dto.response.InviteMembersResponse;
+import org.psk.demo.dto.response.MembershipCheckResponse;
 import org.psk.demo.entity.Group;
+import org.psk.demo.entity.GroupPurge;
+import org.psk.demo.entity.GroupStats;
 import org.psk.demo.entity.User;
+import org.psk.demo.repository.GroupPurgeRepository;
 import org.psk.demo.repository.GroupRepository;
 import org.psk.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class GroupService {
 
+    private static final int MAX_FLOW_DAYS = 731;
+
     @Autowired
     private GroupRepository groupRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GroupPurgeRepository groupPurgeRepository;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private RecentCommentsCache recentCommentsCache;
+
+    @Autowired
+    private TaskDependencyGraph dependencyGraph;
+
+    @Autowired
+    private GroupStatsService groupStatsService;
+
+    @Autowired
+    private GroupFlowService groupFlowService;
+
     /**
      * Creates a new group with the specified user as creator and first member
      */
@@ -53,6 +103,11 @@ public class GroupService {
 
             // Save group
             Group savedGroup = groupRepository.save(group);
+            groupStatsService.adjustMembers(savedGroup.getId(), 1);
+            TransactionHooks.afterCommit(() -> {
+                membershipIndex.groupCreated(savedGroup.getId(), creator.getId());
+                membershipIndex.memberAdded(savedGroup.getId(), creator.getId());
+            });
 
             // Convert to response DTO
             return convertToGroupResponse(savedGroup);
@@ -141,6 +196,8 @@ public class GroupService {
             // Add member
             group.addMember(userToAdd);
             Group savedGroup = groupRepository.save(group);
+            groupStatsService.adjustMembers(groupId, 1);
+            TransactionHooks.afterCommit(() -> membershipIndex.memberAdded(groupId, userToAdd.getId()));
 
             return convertToGroupResponse(savedGroup);
 
@@ -149,6 +206,57 @@ public class GroupService {
         }
     }
 
+    /**
+     * Adds many members at once (only group creator can do this). Usernames are resolved
+     * with one query and missing memberships inserted with one statement, without
+     * loading the group's current members.
+     */
+    public InviteMembersResponse inviteMembers(Long groupId, InviteMembersRequest request, Long currentUserId) {
+        try {
+            // Find group
+            Optional<Group> groupOpt = groupRepository.findById(groupId);
+            if (groupOpt.isEmpty()) {
+                return new InviteMembersResponse("Group not found!", false);
+            }
+
+            // Check if current user is the creator
+            if (!groupOpt.get().getCreator().getId().equals(currentUserId)) {
+                return new InviteMembersResponse("Only group creator can add members!", false);
+            }
+
+            Set<String> usernames = new LinkedHashSet<>();
+            for (String username : request.getUsernames()) {
+                if (username != null && !username.isBlank()) {
+                    usernames.add(username.trim());
+                }
+            }
+
+            Map<String, User> usersByName = userRepository.findByUsernameIn(usernames).stream()
+                    .collect(Collectors.toMap(User::getUsername, Function.identity()));
+            List<Long> userIds = usersByName.values().stream().map(User::getId).toList();
+
+            Set<Long> added = insertMembers(groupId, userIds);
+
+            List<InviteMembersResponse.InviteResult> results = new ArrayList<>(usernames.size());
+            for (String username : usernames) {
+                User user = usersByName.get(username);
+                if (user == null) {
+                    results.add(new InviteMembersResponse.InviteResult(username, null, "NOT_FOUND"));
+                } else if (added.contains(user.getId())) {
+                    results.add(new InviteMembersResponse.InviteResult(username, user.getId(), "ADDED"));
+                } else {
+                    results.add(new InviteMembersResponse.InviteResult(username, user.getId(), "ALREADY_MEMBER"));
+                }
+            }
+
+            return new InviteMembersResponse("Invited " + added.size() + " of " + usernames.size() + " users",
+                    groupId, results, added.size(), true);
+
+        } catch (Exception e) {
+            return new InviteMembersResponse("Could not add members! " + e.getMessage(), false);
+        }
+    }
+
     /**
      * Removes a member from the group (only group creator can do this)
      */
@@ -184,6 +292,8 @@ public class GroupService {
             // Remove member
             group.removeMember(userToRemove);
             Group savedGroup = groupRepository.save(group);
+            groupStatsService.adjustMembers(groupId, -1);
+            TransactionHooks.afterCommit(() -> membershipIndex.memberRemoved(groupId, userIdToRemove));
 
             return convertToGroupResponse(savedGroup);
 
@@ -192,6 +302,105 @@ public class GroupService {
         }
     }
 
+    /**
+     * Returns which of the given users are members of the group, answered from the
+     * membership index once it has been built
+     */
+    @Transactional(readOnly = true)
+    public MembershipCheckResponse checkMembers(Long groupId, Collection<Long> userIds, Long currentUserId) {
+        try {
+            if (membershipIndex.isReady()) {
+                if (!membershipIndex.groupExists(groupId)) {
+                    return new MembershipCheckResponse("Group not found!", false);
+                }
+                if (!membershipIndex.canAccess(groupId, currentUserId)) {
+                    return new MembershipCheckResponse("Access denied! You are not a member of this group.", false);
+                }
+                return new MembershipCheckResponse("Membership checked successfully",
+                        groupId, membershipIndex.membersAmong(groupId, userIds),
+                        membershipIndex.getMemberCount(groupId), true);
+            }
+
+            // Index still building: fall back to the entity graph
+            Optional<Group> groupOpt = groupRepository.findById(groupId);
+            if (groupOpt.isEmpty()) {
+                return new MembershipCheckResponse("Group not found!", false);
+            }
+
+            Group group = groupOpt.get();
+            boolean hasAccess = group.getCreator().getId().equals(currentUserId)
+                    || group.getMembers().stream().anyMatch(member -> member.getId().equals(currentUserId));
+            if (!hasAccess) {
+                return new MembershipCheckResponse("Access denied! You are not a member of this group.", false);
+            }
+
+            List<Long> memberIds = group.getMembers().stream().map(User::getId).toList();
+            List<Long> found = userIds.stream().filter(memberIds::contains).toList();
+            return new MembershipCheckResponse("Membership checked successfully",
+                    groupId, found, memberIds.size(), true);
+
+        } catch (Exception e) {
+            return new MembershipCheckResponse("Could not check membership! " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Returns the group's comment, member and task counts from its group_stats row
+     */
+    public GroupStatsResponse getGroupStats(Long groupId, Long currentUserId) {
+        try {
+            MembershipCheckResponse access = checkMembers(groupId, List.of(), currentUserId);
+            if (!access.isSuccess()) {
+                return new GroupStatsResponse(access.getMessage(), false);
+            }
+
+            GroupStats stats = groupStatsService.getStats(groupId);
+            return new GroupStatsResponse(
+                    "Group stats retrieved successfully",
+                    groupId,
+                    stats.getCommentCount(),
+                    stats.getMemberCount(),
+                    stats.getTodoTasks(),
+                    stats.getInProgressTasks(),
+                    stats.getDoneTasks(),
+                    stats.getTodoTasks() + stats.getInProgressTasks() + stats.getDoneTasks(),
+                    true
+            );
+
+        } catch (Exception e) {
+            return new GroupStatsResponse("Could not retrieve group stats! " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Returns the group's daily task counts per status, with tasks created and completed
+     * each day, for burndown and cumulative-flow charts. Defaults to the last 30 days.
+     */
+    public GroupFlowResponse getGroupFlow(Long groupId, LocalDate from, LocalDate to, Long currentUserId) {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate end = to == null || to.isAfter(today) ? today : to;
+            LocalDate start = from != null ? from : end.minusDays(29);
+            if (start.isAfter(end)) {
+                return new GroupFlowResponse("Start date must not be after end date!", false);
+            }
+            if (ChronoUnit.DAYS.between(start, end) >= MAX_FLOW_DAYS) {
+                return new GroupFlowResponse("Date range cannot exceed " + MAX_FLOW_DAYS + " days!", false);
+            }
+
+            MembershipCheckResponse access = checkMembers(groupId, List.of(), currentUserId);
+            if (!access.isSuccess()) {
+                return new GroupFlowResponse(access.getMessage(), false);
+            }
+
+            return new GroupFlowResponse("Group flow retrieved successfully", groupId,
+                    groupFlowService.getFlow(groupId, start, end), true);
+
+        } catch (Exception e) {
+            return new GroupFlowResponse("Could not retrieve group flow! " + e.getMessage(), false);
+        }
+    }
+
     /**
      * Checks if a group name is available for use
      */
@@ -201,7 +410,8 @@ public class GroupService {
     }
 
     /**
-     * Deletes a group permanently (only group creator can do this)
+     * Deletes a group (only group creator can do this). The group disappears at once and
+     * frees its name; GroupPurger removes its tasks, comments and memberships afterwards.
      */
     public GroupResponse deleteGroup(Long groupId, Long currentUserId) {
         try {
@@ -222,8 +432,31 @@ public class GroupService {
             // Store group name for response message
             String groupName = group.getName();
 
-            // Delete the group (cascade will handle member relationships)
-            groupRepository.delete(group);
+            // Mark the group deleted, renaming it so the name can be reused right away
+            int marked = jdbcTemplate.update(
+                    "UPDATE groups SET deleted_at = now(), name = 'deleted-' || id || '-' || name WHERE id = ? AND deleted_at IS NULL",
+                    groupId);
+            if (marked == 0) {
+                return new GroupResponse("Group not found!", false);
+            }
+
+            GroupPurge purge = new GroupPurge();
+            purge.setGroupId(groupId);
+            purge.setGroupName(groupName);
+            purge.setRequestedBy(currentUserId);
+            purge.setTasksTotal(countRows("tasks", groupId));
+            purge.setCommentsTotal(countRows("comments", groupId));
+            purge.setMembersTotal(countRows("group_members", groupId));
+            groupPurgeRepository.save(purge);
+
+            TransactionHooks.afterCommit(() -> {
+                entityManagerFactory.getCache().unwrap(Cache.class).evictEntityData(Group.class, groupId);
+                evictMembershipCaches(groupId);
+                membershipIndex.groupDeleted(groupId);
+                deadlineScheduler.untrackGroup(groupId);
+                recentCommentsCache.evict(groupId);
+                dependencyGraph.evict(groupId);
+            });
 
             return new GroupResponse("Group '" + groupName + "' deleted successfully!", true);
 
@@ -232,6 +465,77 @@ public class GroupService {
         }
     }
 
+    /**
+     * Inserts the memberships that do not exist yet and returns the user ids actually added
+     */
+    private Set<Long> insertMembers(Long groupId, List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Long> added = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO group_members (group_id, user_id)
+                    SELECT ?, user_id FROM unnest(?) AS u(user_id)
+                    ON CONFLICT DO NOTHING
+                    RETURNING user_id""");
+            statement.setLong(1, groupId);
+            statement.setArray(2, connection.createArrayOf("bigint", userIds.toArray()));
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        if (!added.isEmpty()) {
+            groupStatsService.adjustMembers(groupId, added.size());
+            TransactionHooks.afterCommit(() -> {
+                evictMembershipCaches(groupId);
+                membershipIndex.membersAdded(groupId, added);
+            });
+        }
+        return new LinkedHashSet<>(added);
+    }
+
+    /**
+     * Reports how far the removal of a deleted group's data has got (only the user who
+     * deleted the group can see this)
+     */
+    @Transactional(readOnly = true)
+    public GroupPurgeResponse getDeletionProgress(Long groupId, Long currentUserId) {
+        Optional<GroupPurge> purgeOpt = groupPurgeRepository.findById(groupId);
+        if (purgeOpt.isEmpty() || !purgeOpt.get().getRequestedBy().equals(currentUserId)) {
+            return new GroupPurgeResponse("No deletion found for this group!", false);
+        }
+
+        GroupPurge purge = purgeOpt.get();
+        return new GroupPurgeResponse(
+                purge.getCompletedAt() != null ? "Group data removed" : "Group data is being removed",
+                purge.getGroupId(),
+                purge.getGroupName(),
+                purge.getCompletedAt() != null,
+                purge.getTasksTotal(),
+                purge.getTasksDeleted(),
+                purge.getCommentsTotal(),
+                purge.getCommentsDeleted(),
+                purge.getMembersTotal(),
+                purge.getMembersDeleted(),
+                purge.getRequestedAt(),
+                purge.getCompletedAt(),
+                true
+        );
+    }
+
+    private long countRows(String table, Long groupId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + table + " WHERE group_id = ?", Long.class, groupId);
+        return count != null ? count : 0L;
+    }
+
+    // Memberships written behind Hibernate's back leave stale second-level cache entries
+    private void evictMembershipCaches(Long groupId) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictCollectionData(Group.class.getName() + ".members", groupId);
+        cache.evictDefaultQueryRegion();
+    }
+
     /**
      * Converts a Group entity to a GroupResponse DTO
      */
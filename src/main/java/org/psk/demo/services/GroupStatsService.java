@@ -0,0 +1,140 @@
+package org.psk.demo.services;
+
+import org.psk.demo.entity.GroupStats;
+import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.repository.GroupStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Maintains the group_stats row of each group. Write paths call the adjust methods
+ * inside their own transaction, after taking the group's change sequence where they
+ * take one, so the counters commit or roll back with the change. Rows are created on
+ * first use, and reconcile() recounts every group periodically to repair any drift.
+ */
+@Service
+public class GroupStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupStatsService.class);
+
+    private static final String ADJUST = """
+            INSERT INTO group_stats (group_id, comment_count, member_count, todo_tasks, in_progress_tasks, done_tasks)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (group_id) DO UPDATE SET
+                comment_count = group_stats.comment_count + EXCLUDED.comment_count,
+                member_count = group_stats.member_count + EXCLUDED.member_count,
+                todo_tasks = group_stats.todo_tasks + EXCLUDED.todo_tasks,
+                in_progress_tasks = group_stats.in_progress_tasks + EXCLUDED.in_progress_tasks,
+                done_tasks = group_stats.done_tasks + EXCLUDED.done_tasks""";
+
+    /*
+     * The row lock taken first waits out every transaction that has already adjusted the
+     * row, so the recount in the next statement sees all of their writes, and adjustments
+     * queued behind it are added on top of the recounted values.
+     */
+    private static final String LOCK_ROW = """
+            INSERT INTO group_stats (group_id, comment_count, member_count, todo_tasks, in_progress_tasks, done_tasks)
+            VALUES (?, 0, 0, 0, 0, 0)
+            ON CONFLICT (group_id) DO UPDATE SET group_id = EXCLUDED.group_id""";
+
+    private static final String RECOUNT = """
+            UPDATE group_stats SET
+                comment_count = (SELECT count(*) FROM comments WHERE group_id = ?),
+                member_count = (SELECT count(*) FROM group_members WHERE group_id = ?),
+                todo_tasks = (SELECT count(*) FROM tasks WHERE group_id = ? AND status = 'TODO'),
+                in_progress_tasks = (SELECT count(*) FROM tasks WHERE group_id = ? AND status = 'IN_PROGRESS'),
+                done_tasks = (SELECT count(*) FROM tasks WHERE group_id = ? AND status = 'DONE'),
+                reconciled_at = now()
+            WHERE group_id = ?""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupStatsRepository groupStatsRepository;
+
+    @Value("${app.group-stats.reconcile-enabled:true}")
+    private boolean reconcileEnabled;
+
+    /**
+     * Moves one task between status counters; {@code from} is null for a new task and
+     * {@code to} is null for a removed one.
+     */
+    public void taskStatusChanged(Long groupId, TaskStatus from, TaskStatus to) {
+        if (from == to) {
+            return;
+        }
+        adjustTasks(groupId, from, -1);
+        adjustTasks(groupId, to, 1);
+    }
+
+    public void tasksAdded(Long groupId, long todo, long inProgress, long done) {
+        adjust(groupId, 0, 0, todo, inProgress, done);
+    }
+
+    public void adjustComments(Long groupId, long delta) {
+        adjust(groupId, delta, 0, 0, 0, 0);
+    }
+
+    public void adjustMembers(Long groupId, long delta) {
+        adjust(groupId, 0, delta, 0, 0, 0);
+    }
+
+    /**
+     * Reads the group's counters, recounting first if it has no row yet.
+     */
+    public GroupStats getStats(Long groupId) {
+        return groupStatsRepository.findById(groupId)
+                .orElseGet(() -> transactionTemplate.execute(status -> recount(groupId)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.group-stats.reconcile-interval-ms:21600000}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+
+        List<Long> groupIds = jdbcTemplate.queryForList(
+                "SELECT id FROM groups WHERE deleted_at IS NULL ORDER BY id", Long.class);
+        for (Long groupId : groupIds) {
+            try {
+                transactionTemplate.execute(status -> recount(groupId));
+            } catch (RuntimeException e) {
+                // Keep going; this group is recounted on the next run
+                log.warn("Could not recount stats of group {}; retrying on the next run", groupId, e);
+            }
+        }
+    }
+
+    private GroupStats recount(Long groupId) {
+        jdbcTemplate.update(LOCK_ROW, groupId);
+        jdbcTemplate.update(RECOUNT, groupId, groupId, groupId, groupId, groupId, groupId);
+        return groupStatsRepository.findById(groupId).orElse(null);
+    }
+
+    private void adjustTasks(Long groupId, TaskStatus status, long delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case TODO -> adjust(groupId, 0, 0, delta, 0, 0);
+            case IN_PROGRESS -> adjust(groupId, 0, 0, 0, delta, 0);
+            case DONE -> adjust(groupId, 0, 0, 0, 0, delta);
+        }
+    }
+
+    private void adjust(Long groupId, long comments, long members, long todo, long inProgress, long done) {
+        jdbcTemplate.update(ADJUST, groupId, comments, members, todo, inProgress, done);
+    }
+}
@@ -0,0 +1,301 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.postgresql.PGConnection;
+import org.psk.demo.dto.response.TaskImportResponse;
+import org.psk.demo.entity.TaskStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Bulk export and import of a group's data straight through JDBC. Exports read from a
+ * server-side cursor and write each row to the response as it arrives; imports COPY the
+ * upload into a temporary staging table and merge it into tasks with one statement.
+ * Neither path holds more than a fetch-size worth of rows in memory.
+ */
+@Service
+public class GroupTransferService {
+
+    private static final String EXPORT_TASKS = """
+            SELECT id, title, description, deadline, status, user_id AS assigned_user_id,
+                   created_by, created_at, updated_at
+            FROM tasks WHERE group_id = ? ORDER BY id""";
+
+    private static final String EXPORT_COMMENTS = """
+            SELECT id, author_id, content, created_at, updated_at, is_edited
+            FROM comments WHERE group_id = ? ORDER BY id""";
+
+    // Same columns as the task export, so an exported CSV can be imported unchanged
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE task_import (
+                id bigint, title text, description text, deadline timestamp, status text,
+                assigned_user_id bigint, created_by bigint, created_at timestamp, updated_at timestamp
+            ) ON COMMIT DROP""";
+
+    private static final String COPY_STAGING =
+            "COPY task_import FROM STDIN WITH (FORMAT csv, HEADER MATCH)";
+
+    /*
+     * Valid rows become new tasks created by the importing user, all sharing the step of
+     * the group's change sequence taken just before the merge. Ids from the source are not
+     * kept, and assignees are only kept if they belong to this group. Outbox events,
+     * group_stats counters and today's flow delta are written from the inserted rows in
+     * the same statement; tasks imported as DONE are not counted as completed today.
+     */
+    private static final String MERGE_STAGING = """
+            WITH inserted AS (
+                INSERT INTO tasks (version, title, description, deadline, status, group_id, user_id,
+                                   created_by, created_at, updated_at, change_seq)
+                SELECT 0, s.title, s.description, s.deadline, COALESCE(s.status, 'TODO'), ?,
+                       CASE WHEN s.assigned_user_id = g.creator_id OR EXISTS (
+                                SELECT 1 FROM group_members gm
+                                WHERE gm.group_id = g.id AND gm.user_id = s.assigned_user_id)
+                            THEN s.assigned_user_id END,
+                       ?, COALESCE(s.created_at, now()), now(), ?
+                FROM task_import s
+                JOIN groups g ON g.id = ? AND g.deleted_at IS NULL
+                WHERE s.title IS NOT NULL AND length(s.title) BETWEEN 1 AND 50
+                  AND (s.description IS NULL OR length(s.description) <= 1000)
+                  AND s.deadline IS NOT NULL
+                  AND (s.status IS NULL OR s.status IN ('TODO', 'IN_PROGRESS', 'DONE'))
+                RETURNING *
+            ), counted AS (
+                INSERT INTO group_stats (group_id, comment_count, member_count, todo_tasks, in_progress_tasks, done_tasks)
+                SELECT group_id, 0, 0,
+                       count(*) FILTER (WHERE status = 'TODO'),
+                       count(*) FILTER (WHERE status = 'IN_PROGRESS'),
+                       count(*) FILTER (WHERE status = 'DONE')
+                FROM inserted GROUP BY group_id
+                ON CONFLICT (group_id) DO UPDATE SET
+                    todo_tasks = group_stats.todo_tasks + EXCLUDED.todo_tasks,
+                    in_progress_tasks = group_stats.in_progress_tasks + EXCLUDED.in_progress_tasks,
+                    done_tasks = group_stats.done_tasks + EXCLUDED.done_tasks
+            ), flowed AS (
+                INSERT INTO group_flow_deltas (group_id, day, todo_delta, in_progress_delta, done_delta, created, completed)
+                SELECT group_id, current_date,
+                       count(*) FILTER (WHERE status = 'TODO'),
+                       count(*) FILTER (WHERE status = 'IN_PROGRESS'),
+                       count(*) FILTER (WHERE status = 'DONE'),
+                       count(*), 0
+                FROM inserted GROUP BY group_id
+                ON CONFLICT (group_id, day) DO UPDATE SET
+                    todo_delta = group_flow_deltas.todo_delta + EXCLUDED.todo_delta,
+                    in_progress_delta = group_flow_deltas.in_progress_delta + EXCLUDED.in_progress_delta,
+                    done_delta = group_flow_deltas.done_delta + EXCLUDED.done_delta,
+                    created = group_flow_deltas.created + EXCLUDED.created
+            )
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, group_id, event_type, payload, created_at)
+            SELECT 'TASK', i.id, i.group_id, 'TASK_CREATED',
+                   json_build_object(
+                       'id', i.id, 'groupId', i.group_id, 'version', i.version,
+                       'title', i.title, 'description', i.description,
+                       'deadline', to_char(i.deadline, 'YYYY-MM-DD"T"HH24:MI:SS'),
+                       'status', i.status, 'assignedUserId', i.user_id, 'createdBy', i.created_by)::text,
+                   now()
+            FROM inserted""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private TaskRankRebalancer rankRebalancer;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Value("${app.transfer.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    void init() {
+        // Postgres only streams with a fetch size inside a transaction; otherwise it buffers everything
+        cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(fetchSize);
+    }
+
+    public boolean canAccessGroup(Long groupId, Long userId) {
+        if (membershipIndex.isReady()) {
+            return membershipIndex.canAccess(groupId, userId);
+        }
+
+        Boolean allowed = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM groups g
+                    WHERE g.id = ? AND g.deleted_at IS NULL AND (g.creator_id = ? OR EXISTS (
+                        SELECT 1 FROM group_members gm WHERE gm.group_id = g.id AND gm.user_id = ?)))""",
+                Boolean.class, groupId, userId, userId);
+        return Boolean.TRUE.equals(allowed);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTasks(Long groupId, ExportFormat format, OutputStream out) throws IOException {
+        export(EXPORT_TASKS, groupId, format, out);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportComments(Long groupId, ExportFormat format, OutputStream out) throws IOException {
+        export(EXPORT_COMMENTS, groupId, format, out);
+    }
+
+    /**
+     * Imports tasks from a CSV upload with the same header as the task export.
+     */
+    public TaskImportResponse importTasks(Long groupId, Long userId, InputStream csv) {
+        try {
+            long[] counts = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute(CREATE_STAGING);
+
+                long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try {
+                        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, csv);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                // Only the merge runs under the group's row lock, not the upload; fails for a deleted group
+                long changeSeq = changeTracker.nextChangeSeq(groupId);
+                long imported = jdbcTemplate.update(MERGE_STAGING, groupId, userId, changeSeq, groupId);
+                return new long[]{imported, staged - imported};
+            });
+
+            // Imported rows bypass the per-task hooks, so pick up any that are due soon and
+            // rank them below the existing tasks of their columns
+            deadlineScheduler.reloadWindow();
+            for (TaskStatus status : TaskStatus.values()) {
+                rankRebalancer.request(groupId, status);
+            }
+
+            return new TaskImportResponse("Tasks imported successfully", counts[0], counts[1], true);
+        } catch (Exception e) {
+            return new TaskImportResponse("Could not import tasks! " + e.getMessage(), false);
+        }
+    }
+
+    private void export(String sql, Long groupId, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                cursorTemplate.query(sql, new CsvWriter(writer), groupId);
+            }
+        } else {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                cursorTemplate.query(sql, new NdjsonWriter(generator), groupId);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    // Timestamps are written as ISO local date-times, which COPY reads back as-is
+    private static Object valueOf(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : value;
+    }
+
+    private static class NdjsonWriter implements ResultSetExtractor<Void> {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public Void extractData(ResultSet rs) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            try {
+                while (rs.next()) {
+                    generator.writeStartObject();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        generator.writeFieldName(meta.getColumnLabel(i));
+                        generator.writeObject(valueOf(rs, i));
+                    }
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+    }
+
+    private static class CsvWriter implements ResultSetExtractor<Void> {
+        private final Writer writer;
+
+        CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public Void extractData(ResultSet rs) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            try {
+                // The header is written even for an empty group so the file can still be imported
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    writer.write(i > 1 ? "," : "");
+                    writer.write(meta.getColumnLabel(i));
+                }
+                writer.write('\n');
+
+                while (rs.next()) {
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        writer.write(i > 1 ? "," : "");
+                        Object value = valueOf(rs, i);
+                        if (value != null) {
+                            writer.write(escape(value.toString()));
+                        }
+                    }
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        // Unquoted empty fields are NULL to COPY, so empty strings must be quoted
+        private static String escape(String value) {
+            if (value.isEmpty() || value.contains(",") || value.contains("\"")
+                    || value.contains("\n") || value.contains("\r")) {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+            return value;
+        }
+    }
+}
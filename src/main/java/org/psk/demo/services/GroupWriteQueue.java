@@ -0,0 +1,251 @@
+package org.psk.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional single-writer mode for hot groups. When enabled, every write for a group
+ * is handed to one virtual-thread worker for that group, which drains whatever has
+ * queued up and commits it in a single transaction. Quiet groups only ever have one
+ * command in the queue, so they run it on its own exactly as before. Inside a batch
+ * each command runs under its own savepoint, and a command whose response reports a
+ * rejection is rolled back to it, so edits it made before rejecting are not committed.
+ * Anything a command throws, errors included, goes back to its caller and leaves the
+ * worker running.
+ */
+@Component
+public class GroupWriteQueue {
+
+    private static final ThreadLocal<Long> CURRENT_GROUP = new ThreadLocal<>();
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate savepointTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.group-write-queue.enabled:false}")
+    private boolean enabled;
+
+    // Empty means every group is serialized once the queue is enabled
+    @Value("${app.group-write-queue.group-ids:}")
+    private Set<Long> groupIds;
+
+    @Value("${app.group-write-queue.max-batch-size:32}")
+    private int maxBatchSize;
+
+    @Value("${app.group-write-queue.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    private final ConcurrentHashMap<Long, Worker> workers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        savepointTemplate = new TransactionTemplate(transactionManager);
+        savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * Runs a write command for the given group, serialized behind other writes to the
+     * same group when the queue is enabled for it.
+     */
+    public <T> T execute(Long groupId, Supplier<T> command) {
+        if (!isSerialized(groupId) || groupId.equals(CURRENT_GROUP.get())) {
+            return command.get();
+        }
+
+        PendingCommand<T> pending = new PendingCommand<>(command);
+
+        // Enqueue inside compute so a worker cannot retire between lookup and add
+        workers.compute(groupId, (id, worker) -> {
+            Worker target = worker != null ? worker : startWorker(id);
+            target.queue.add(pending);
+            return target;
+        });
+
+        return pending.await();
+    }
+
+    /**
+     * Same as {@link #execute(Long, Supplier)} for commands addressed by entity id;
+     * the group lookup is only performed when the queue is enabled.
+     */
+    public <T> T execute(Supplier<Long> groupIdLookup, Supplier<T> command) {
+        if (!enabled) {
+            return command.get();
+        }
+
+        Long groupId = groupIdLookup.get();
+        if (groupId == null) {
+            return command.get();
+        }
+
+        return execute(groupId, command);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getActiveWorkerCount() {
+        return workers.size();
+    }
+
+    private boolean isSerialized(Long groupId) {
+        return enabled && groupId != null && (groupIds.isEmpty() || groupIds.contains(groupId));
+    }
+
+    private Worker startWorker(Long groupId) {
+        Worker worker = new Worker(groupId);
+        Thread.ofVirtual()
+                .name("group-writer-" + groupId)
+                .start(worker::run);
+        return worker;
+    }
+
+    private final class Worker {
+        private final Long groupId;
+        private final BlockingQueue<PendingCommand<?>> queue = new LinkedBlockingQueue<>();
+
+        private Worker(Long groupId) {
+            this.groupId = groupId;
+        }
+
+        private void run() {
+            CURRENT_GROUP.set(groupId);
+            List<PendingCommand<?>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                while (true) {
+                    PendingCommand<?> first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (retire()) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    runBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.remove(groupId, this);
+                queue.forEach(PendingCommand::runAlone);
+            } finally {
+                CURRENT_GROUP.remove();
+            }
+        }
+
+        private boolean retire() {
+            return workers.computeIfPresent(groupId,
+                    (id, worker) -> worker == this && queue.isEmpty() ? null : worker) == null;
+        }
+
+        private void runBatch(List<PendingCommand<?>> batch) {
+            if (batch.size() == 1) {
+                batch.get(0).runAlone();
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (PendingCommand<?> pending : batch) {
+                        boolean rejected = Boolean.TRUE.equals(savepointTemplate.execute(savepoint -> {
+                            pending.execute();
+                            // Flush per command so version checks in later commands see earlier ones
+                            entityManager.flush();
+                            if (pending.isRejected()) {
+                                savepoint.setRollbackOnly();
+                                return true;
+                            }
+                            return false;
+                        }));
+                        if (rejected) {
+                            // The rolled-back edits are still on the managed entities; earlier
+                            // commands are already flushed, so start from a clean context
+                            entityManager.clear();
+                        }
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                // One command poisoned the shared transaction, so give each its own
+                batch.forEach(PendingCommand::runAlone);
+                return;
+            }
+
+            batch.forEach(PendingCommand::publish);
+        }
+    }
+
+    private static final class PendingCommand<T> {
+        private final Supplier<T> command;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        private PendingCommand(Supplier<T> command) {
+            this.command = command;
+        }
+
+        private void execute() {
+            value = command.get();
+        }
+
+        // Commands report a refusal through the success flag of their response
+        private boolean isRejected() {
+            return value instanceof AuthenticationResponse response && !response.isSuccess();
+        }
+
+        private void publish() {
+            result.complete(value);
+        }
+
+        private void runAlone() {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                // Errors too: a caller left without a result would wait forever
+                result.completeExceptionally(e);
+            }
+        }
+
+        private T await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
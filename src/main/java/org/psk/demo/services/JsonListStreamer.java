@@ -0,0 +1,59 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a list response one row at a time, in the same shape as the buffered list
+ * DTOs. Rows come from a repository stream backed by a forward-only cursor and the
+ * persistence context is cleared as it goes, so memory stays flat however many rows
+ * there are. Must run inside a read-only transaction that stays open while writing.
+ */
+@Component
+public class JsonListStreamer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${app.streaming.clear-interval:500}")
+    private int clearInterval;
+
+    public <T> void write(OutputStream out, String message, String itemsField, String countField,
+                          Stream<T> rows, Function<T, ?> converter) throws IOException {
+        try (rows; JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("message", message);
+            generator.writeBooleanField("success", true);
+
+            generator.writeArrayFieldStart(itemsField);
+            int count = 0;
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(converter.apply(iterator.next()));
+                if (++count % clearInterval == 0) {
+                    // Drop the rows and lookups loaded so far; nothing here is ever written back
+                    entityManager.clear();
+                }
+            }
+            generator.writeEndArray();
+
+            // The count is only known at the end, unlike the buffered response
+            generator.writeNumberField(countField, count);
+            generator.writeEndObject();
+        }
+    }
+}
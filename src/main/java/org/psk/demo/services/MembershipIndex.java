@@ -0,0 +1,233 @@
+package org.psk.demo.services;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory copy of group membership as compressed bitmaps: the member user ids of
+ * each group and the group ids of each user. Bitmaps are never modified once
+ * published; a change copies the affected bitmap and swaps it in, so reads take no
+ * locks. Built by one streaming scan once the application is ready and kept current by
+ * GroupService after each membership change commits. Until the first build finishes,
+ * {@link #isReady()} is false and callers must ask the database instead.
+ */
+@Component
+public class MembershipIndex {
+
+    private static final Roaring64Bitmap EMPTY = new Roaring64Bitmap();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.membership-index.fetch-size:10000}")
+    private int fetchSize;
+
+    private final Object writeLock = new Object();
+
+    private volatile Map<Long, Roaring64Bitmap> membersByGroup = new ConcurrentHashMap<>();
+    private volatile Map<Long, Roaring64Bitmap> groupsByUser = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> creatorByGroup = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Set when membership changes while a build is scanning, which then scans again
+    private boolean changedDuringBuild;
+    private boolean building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (writeLock) {
+            building = true;
+        }
+
+        boolean again;
+        do {
+            Map<Long, Roaring64Bitmap> members = new ConcurrentHashMap<>();
+            Map<Long, Roaring64Bitmap> groups = new ConcurrentHashMap<>();
+            Map<Long, Long> creators = new ConcurrentHashMap<>();
+            scan(members, groups, creators);
+
+            synchronized (writeLock) {
+                again = changedDuringBuild;
+                changedDuringBuild = false;
+                if (!again) {
+                    membersByGroup = members;
+                    groupsByUser = groups;
+                    creatorByGroup = creators;
+                    building = false;
+                    ready = true;
+                }
+            }
+        } while (again);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isMember(Long groupId, Long userId) {
+        return membersByGroup.getOrDefault(groupId, EMPTY).contains(userId);
+    }
+
+    // Members and the creator may read and write in a group
+    public boolean canAccess(Long groupId, Long userId) {
+        return userId.equals(creatorByGroup.get(groupId)) || isMember(groupId, userId);
+    }
+
+    public boolean groupExists(Long groupId) {
+        return creatorByGroup.containsKey(groupId);
+    }
+
+    public long getMemberCount(Long groupId) {
+        return membersByGroup.getOrDefault(groupId, EMPTY).getLongCardinality();
+    }
+
+    /**
+     * Which of the given users belong to the group, in the order given
+     */
+    public List<Long> membersAmong(Long groupId, Collection<Long> userIds) {
+        Roaring64Bitmap members = membersByGroup.getOrDefault(groupId, EMPTY);
+        List<Long> result = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (members.contains(userId)) {
+                result.add(userId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups both users are members of, ascending by id
+     */
+    public List<Long> sharedGroups(Long userId, Long otherUserId) {
+        Roaring64Bitmap shared = groupsByUser.getOrDefault(userId, EMPTY).clone();
+        shared.and(groupsByUser.getOrDefault(otherUserId, EMPTY));
+
+        List<Long> result = new ArrayList<>();
+        shared.forEach(result::add);
+        return result;
+    }
+
+    // For fan-out: visits every member id of the group without copying the set
+    public void forEachMember(Long groupId, LongConsumer action) {
+        membersByGroup.getOrDefault(groupId, EMPTY).forEach(action::accept);
+    }
+
+    public long getSerializedSizeInBytes() {
+        long bytes = 0;
+        for (Roaring64Bitmap bitmap : membersByGroup.values()) {
+            bytes += bitmap.serializedSizeInBytes();
+        }
+        for (Roaring64Bitmap bitmap : groupsByUser.values()) {
+            bytes += bitmap.serializedSizeInBytes();
+        }
+        return bytes;
+    }
+
+    public void groupCreated(Long groupId, Long creatorId) {
+        synchronized (writeLock) {
+            creatorByGroup.put(groupId, creatorId);
+            changed();
+        }
+    }
+
+    public void memberAdded(Long groupId, Long userId) {
+        synchronized (writeLock) {
+            membersByGroup.put(groupId, with(membersByGroup.get(groupId), userId));
+            groupsByUser.put(userId, with(groupsByUser.get(userId), groupId));
+            changed();
+        }
+    }
+
+    // Copies the group's bitmap once for the whole batch
+    public void membersAdded(Long groupId, Collection<Long> userIds) {
+        synchronized (writeLock) {
+            Roaring64Bitmap members = membersByGroup.get(groupId);
+            members = members != null ? members.clone() : new Roaring64Bitmap();
+            for (Long userId : userIds) {
+                members.addLong(userId);
+                groupsByUser.put(userId, with(groupsByUser.get(userId), groupId));
+            }
+            membersByGroup.put(groupId, members);
+            changed();
+        }
+    }
+
+    public void memberRemoved(Long groupId, Long userId) {
+        synchronized (writeLock) {
+            membersByGroup.put(groupId, without(membersByGroup.get(groupId), userId));
+            groupsByUser.put(userId, without(groupsByUser.get(userId), groupId));
+            changed();
+        }
+    }
+
+    public void groupDeleted(Long groupId) {
+        synchronized (writeLock) {
+            Roaring64Bitmap members = membersByGroup.remove(groupId);
+            if (members != null) {
+                members.forEach(userId -> groupsByUser.put(userId, without(groupsByUser.get(userId), groupId)));
+            }
+            creatorByGroup.remove(groupId);
+            changed();
+        }
+    }
+
+    // Caller must hold writeLock
+    private void changed() {
+        if (building) {
+            changedDuringBuild = true;
+        }
+    }
+
+    private void scan(Map<Long, Roaring64Bitmap> members, Map<Long, Roaring64Bitmap> groups, Map<Long, Long> creators) {
+        // Postgres only streams with a fetch size inside a transaction
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(fetchSize);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cursor.query("SELECT id, creator_id FROM groups WHERE deleted_at IS NULL",
+                    rs -> {
+                        creators.put(rs.getLong("id"), rs.getLong("creator_id"));
+                    });
+            cursor.query("""
+                    SELECT gm.group_id, gm.user_id FROM group_members gm
+                    JOIN groups g ON g.id = gm.group_id AND g.deleted_at IS NULL""",
+                    rs -> {
+                        long groupId = rs.getLong("group_id");
+                        long userId = rs.getLong("user_id");
+                        members.computeIfAbsent(groupId, id -> new Roaring64Bitmap()).addLong(userId);
+                        groups.computeIfAbsent(userId, id -> new Roaring64Bitmap()).addLong(groupId);
+                    });
+        });
+
+        members.values().forEach(Roaring64Bitmap::runOptimize);
+        groups.values().forEach(Roaring64Bitmap::runOptimize);
+    }
+
+    private static Roaring64Bitmap with(Roaring64Bitmap bitmap, long value) {
+        Roaring64Bitmap copy = bitmap != null ? bitmap.clone() : new Roaring64Bitmap();
+        copy.addLong(value);
+        return copy;
+    }
+
+    private static Roaring64Bitmap without(Roaring64Bitmap bitmap, long value) {
+        Roaring64Bitmap copy = bitmap != null ? bitmap.clone() : new Roaring64Bitmap();
+        copy.removeLong(value);
+        return copy;
+    }
+}
@@ -0,0 +1,113 @@
+package org.psk.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import org.psk.demo.entity.OutboxEvent;
+import org.psk.demo.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the outbox to in-process subscribers. Each pass claims the oldest events with
+ * FOR UPDATE SKIP LOCKED, hands them to every subscriber in id order and deletes them
+ * in the same transaction, so an event is only gone once every subscriber has seen it.
+ * With several application instances each relay keeps order within its own batches.
+ * <p>
+ * Each event is delivered under its own savepoint. A rejected event stops the pass and
+ * has its attempt count raised; once it reaches {@code max-attempts} the event is moved
+ * to outbox_dead_letters so it no longer holds up the events behind it.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String RECORD_ATTEMPT =
+            "UPDATE outbox_events SET attempts = attempts + 1 WHERE id = ?";
+
+    private static final String DEAD_LETTER =
+            "INSERT INTO outbox_dead_letters (id, aggregate_type, aggregate_id, group_id, event_type, payload, " +
+            "created_at, attempts, last_error, dead_lettered_at) " +
+            "SELECT id, aggregate_type, aggregate_id, group_id, event_type, payload, created_at, ?, ?, now() " +
+            "FROM outbox_events WHERE id = ?";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private List<OutboxSubscriber> subscribers = List.of();
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:25}")
+    private int maxAttempts;
+
+    private TransactionTemplate savepointTemplate;
+
+    @PostConstruct
+    void init() {
+        savepointTemplate = new TransactionTemplate(transactionManager);
+        savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        // Keep going while batches come back full so a backlog drains in one pass
+        Integer delivered;
+        do {
+            delivered = transactionTemplate.execute(status -> deliverNextBatch());
+        } while (delivered != null && delivered == batchSize);
+    }
+
+    private int deliverNextBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> doneIds = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                // A subscriber's failed writes are rolled back without dooming the batch
+                savepointTemplate.executeWithoutResult(savepoint ->
+                        subscribers.forEach(subscriber -> subscriber.onEvent(event)));
+            } catch (RuntimeException e) {
+                int attempts = event.getAttempts() + 1;
+                if (attempts < maxAttempts) {
+                    log.warn("Outbox event {} failed delivery attempt {} of {}", event.getId(), attempts, maxAttempts, e);
+                    jdbcTemplate.update(RECORD_ATTEMPT, event.getId());
+                    // Stop here to keep ordering; this event and the rest are retried next pass
+                    break;
+                }
+
+                log.error("Outbox event {} failed {} delivery attempts, moving it to outbox_dead_letters",
+                        event.getId(), attempts, e);
+                jdbcTemplate.update(DEAD_LETTER, attempts, String.valueOf(e), event.getId());
+            }
+            doneIds.add(event.getId());
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(doneIds);
+        return doneIds.size();
+    }
+}
@@ -0,0 +1,97 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.psk.demo.entity.ChangeEntityType;
+import org.psk.demo.entity.Comment;
+import org.psk.demo.entity.OutboxEventType;
+import org.psk.demo.entity.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes change events into the outbox table. Callers must be inside the transaction
+ * that makes the change, so an event exists if and only if the change committed;
+ * {@link OutboxRelay} delivers them afterwards.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, group_id, event_type, payload, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void recordTask(OutboxEventType eventType, Task task) {
+        insert(List.<Object[]>of(row(ChangeEntityType.TASK, task.getId(), task.getGroupId(), eventType, payloadOf(task))));
+    }
+
+    public void recordComment(OutboxEventType eventType, Comment comment) {
+        recordComments(eventType, List.of(comment));
+    }
+
+    public void recordComments(OutboxEventType eventType, List<Comment> comments) {
+        List<Object[]> rows = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            rows.add(row(ChangeEntityType.COMMENT, comment.getId(), comment.getGroupId(), eventType, payloadOf(comment)));
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        }
+    }
+
+    private Object[] row(ChangeEntityType aggregateType, Long aggregateId, Long groupId,
+                         OutboxEventType eventType, Map<String, Object> payload) {
+        try {
+            return new Object[]{
+                    aggregateType.name(),
+                    aggregateId,
+                    groupId,
+                    eventType.name(),
+                    objectMapper.writeValueAsString(payload),
+                    LocalDateTime.now()
+            };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event", e);
+        }
+    }
+
+    private Map<String, Object> payloadOf(Task task) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", task.getId());
+        payload.put("groupId", task.getGroupId());
+        payload.put("version", task.getVersion());
+        payload.putAll(TaskHistoryRecorder.fieldsOf(task));
+        payload.put("createdBy", task.getCreatedBy());
+        payload.put("rank", task.getRank());
+        payload.put("parentId", task.getParentId());
+        return payload;
+    }
+
+    private Map<String, Object> payloadOf(Comment comment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", comment.getId());
+        payload.put("groupId", comment.getGroupId());
+        payload.put("authorId", comment.getAuthorId());
+        payload.put("content", comment.getContent());
+        payload.put("parentId", comment.getParentId());
+        payload.put("threadPath", comment.getThreadPath());
+        return payload;
+    }
+}
@@ -0,0 +1,13 @@
+package org.psk.demo.services;
+
+import org.psk.demo.entity.OutboxEvent;
+
+/**
+ * In-process consumer of task and comment change events. Delivery is at-least-once and
+ * in outbox order, so implementations should tolerate seeing an event twice. Throwing
+ * leaves the event in the outbox to be retried on the next relay pass.
+ */
+public interface OutboxSubscriber {
+
+    void onEvent(OutboxEvent event);
+}
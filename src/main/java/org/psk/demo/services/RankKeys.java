@@ -0,0 +1,223 @@
+package org.psk.demo.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexicographic rank keys for manual ordering, in base 62. A key is a variable-length
+ * integer followed by an optional fraction. The integer's first character gives its
+ * length and sign: "a" has one digit after it, "b" two and so on up to "z", and
+ * "Z" down to "A" are the negative integers, one digit to twenty-six. So "a0" is zero,
+ * "a1" follows it, "az" is followed by "b00", and "Zz" comes just before "a0".
+ * <p>
+ * Keys compare correctly as plain strings under byte-order ("C") collation. Adding a
+ * card at either end steps the integer, so a column that is only ever appended to
+ * gains a digit per factor of 62 cards. A key between two neighbours with the same
+ * integer is a fraction midway between theirs, so moving a card rewrites only that
+ * card. Fractions never end in the zero digit, otherwise no key would fit between
+ * "a0A" and "a0A0".
+ */
+public final class RankKeys {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    // The key of the first card in an empty column
+    private static final String ZERO = "a0";
+
+    // Nothing sorts below it, so no key may be it
+    private static final String SMALLEST_INTEGER = "A" + "0".repeat(26);
+
+    private RankKeys() {
+    }
+
+    /**
+     * A key strictly between {@code before} and {@code after}; either may be null for
+     * the start or end of the list.
+     */
+    public static String between(String before, String after) {
+        if (before != null) {
+            validate(before);
+        }
+        if (after != null) {
+            validate(after);
+        }
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Rank " + before + " is not below " + after);
+        }
+
+        if (before == null && after == null) {
+            return ZERO;
+        }
+
+        if (before == null) {
+            String integer = integerPart(after);
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", after.substring(integer.length()));
+            }
+            // A key with a fraction sorts after its bare integer
+            if (integer.compareTo(after) < 0) {
+                return integer;
+            }
+            String decremented = decrement(integer);
+            if (decremented == null) {
+                throw new IllegalArgumentException("No rank below " + after);
+            }
+            return decremented;
+        }
+
+        String lowerInteger = integerPart(before);
+        String lowerFraction = before.substring(lowerInteger.length());
+
+        if (after == null) {
+            String incremented = increment(lowerInteger);
+            return incremented != null ? incremented : lowerInteger + midpoint(lowerFraction, null);
+        }
+
+        String upperInteger = integerPart(after);
+        if (lowerInteger.equals(upperInteger)) {
+            return lowerInteger + midpoint(lowerFraction, after.substring(upperInteger.length()));
+        }
+        String incremented = increment(lowerInteger);
+        if (incremented == null) {
+            throw new IllegalArgumentException("No rank above " + before);
+        }
+        if (incremented.compareTo(after) < 0) {
+            return incremented;
+        }
+        return lowerInteger + midpoint(lowerFraction, null);
+    }
+
+    /**
+     * {@code count} ascending keys for rewriting a whole list: consecutive integers from
+     * "a0", so the list can grow at either end and between any two cards.
+     */
+    public static List<String> sequential(int count) {
+        List<String> keys = new ArrayList<>(count);
+        String key = ZERO;
+        for (int i = 0; i < count; i++) {
+            keys.add(key);
+            key = increment(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Whether {@code key} is a well-formed rank key.
+     */
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.equals(SMALLEST_INTEGER)) {
+            return false;
+        }
+        char head = key.charAt(0);
+        if (!(head >= 'a' && head <= 'z') && !(head >= 'A' && head <= 'Z')) {
+            return false;
+        }
+        int integerLength = integerLength(head);
+        if (key.length() < integerLength) {
+            return false;
+        }
+        for (int i = 1; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return key.length() == integerLength || key.charAt(key.length() - 1) != DIGITS.charAt(0);
+    }
+
+    private static void validate(String key) {
+        if (!isValid(key)) {
+            throw new IllegalArgumentException("Invalid rank " + key);
+        }
+    }
+
+    // Head character plus digits
+    private static int integerLength(char head) {
+        return head >= 'a' ? head - 'a' + 2 : 'Z' - head + 2;
+    }
+
+    private static String integerPart(String key) {
+        return key.substring(0, integerLength(key.charAt(0)));
+    }
+
+    // The next integer, or null past the largest one
+    private static String increment(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) + 1;
+            if (digit < BASE) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = DIGITS.charAt(0);
+        }
+
+        // Every digit carried over: move to the next length
+        if (head == 'Z') {
+            return ZERO;
+        }
+        if (head == 'z') {
+            return null;
+        }
+        char next = (char) (head + 1);
+        String rest = new String(digits);
+        return next > 'a' ? next + rest + DIGITS.charAt(0) : next + rest.substring(1);
+    }
+
+    // The previous integer, or null below the smallest one
+    private static String decrement(String integer) {
+        char head = integer.charAt(0);
+        char[] digits = integer.substring(1).toCharArray();
+        char top = DIGITS.charAt(BASE - 1);
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits[i]) - 1;
+            if (digit >= 0) {
+                digits[i] = DIGITS.charAt(digit);
+                return head + new String(digits);
+            }
+            digits[i] = top;
+        }
+
+        // Every digit borrowed: move to the next length
+        if (head == 'a') {
+            return "Z" + top;
+        }
+        if (head == 'A') {
+            return null;
+        }
+        char previous = (char) (head - 1);
+        String rest = new String(digits);
+        return previous < 'Z' ? previous + rest + top : previous + rest.substring(1);
+    }
+
+    // Fraction digits strictly between lower and upper; lower may be empty (zero), upper null means one
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            // Keep any shared prefix and find the midpoint of what follows it
+            int n = 0;
+            while (n < upper.length() && digitAt(lower, n) == upper.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return upper.substring(0, n) + midpoint(lower.substring(Math.min(n, lower.length())), upper.substring(n));
+            }
+        }
+
+        int low = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int high = upper != null ? DIGITS.indexOf(upper.charAt(0)) : BASE;
+        if (high - low > 1) {
+            return String.valueOf(DIGITS.charAt((low + high + 1) / 2));
+        }
+
+        // Adjacent first digits: a shorter upper key may itself fit, otherwise go one digit deeper
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(low) + midpoint(lower.isEmpty() ? "" : lower.substring(1), null);
+    }
+
+    private static char digitAt(String key, int index) {
+        return index < key.length() ? key.charAt(index) : DIGITS.charAt(0);
+    }
+}
@@ -0,0 +1,310 @@
+package org.psk.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import org.psk.demo.entity.Comment;
+import org.psk.demo.entity.User;
+import org.psk.demo.repository.CommentRepository;
+import org.psk.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The newest comments of each recently viewed group, oldest first, with author
+ * usernames already resolved, so the last-24h view is served without touching the
+ * database. A group's buffer is warmed from the primary on first read and then kept
+ * current by the comment write paths after they commit. Warming never reads from the
+ * replica: a comment whose after-commit update arrived before the buffer existed would
+ * be missing from a lagging replica, and so from the buffer until it is evicted. Each
+ * buffer holds at most {@code capacity} comments; once older ones have been pushed out,
+ * reads reaching further back than the buffer covers fall back to the database. Groups
+ * nobody has read for {@code idle-evict-ms} are dropped.
+ */
+@Component
+public class RecentCommentsCache {
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A read-write transaction of its own, so the routing datasource picks the primary
+    private TransactionTemplate primaryTemplate;
+
+    @Value("${app.recent-comments.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recent-comments.capacity:200}")
+    private int capacity;
+
+    @Value("${app.recent-comments.max-groups:1000}")
+    private int maxGroups;
+
+    @Value("${app.recent-comments.idle-evict-ms:600000}")
+    private long idleEvictMs;
+
+    private final Map<Long, GroupBuffer> buffers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        primaryTemplate = new TransactionTemplate(transactionManager);
+        primaryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record RecentComment(Long id, Long version, Long authorId, String authorUsername, String content,
+                                LocalDateTime createdAt, LocalDateTime updatedAt, boolean edited,
+                                Long parentId, String threadPath, int depth, int replyCount) {
+
+        private RecentComment withReplyCount(int replyCount) {
+            return new RecentComment(id, version, authorId, authorUsername, content, createdAt, updatedAt, edited,
+                    parentId, threadPath, depth, replyCount);
+        }
+    }
+
+    /**
+     * Comments of the group created after {@code since}, newest first, or null when
+     * they cannot be served from memory and the caller must query the database. The
+     * first read of a group warms its buffer, in a new transaction on the primary.
+     */
+    public List<RecentComment> getSince(Long groupId, LocalDateTime since) {
+        if (!enabled) {
+            return null;
+        }
+
+        GroupBuffer buffer = buffers.get(groupId);
+        if (buffer == null) {
+            GroupBuffer created = new GroupBuffer();
+            buffer = buffers.putIfAbsent(groupId, created);
+            if (buffer == null) {
+                warm(groupId, created, since);
+                buffer = created;
+            }
+        }
+        return buffer.read(since);
+    }
+
+    /**
+     * Records a created or edited comment. Call after the write commits, so the
+     * comment's version and timestamps are final.
+     */
+    public void commentSaved(Comment comment, String authorUsername) {
+        GroupBuffer buffer = buffers.get(comment.getGroupId());
+        if (buffer != null) {
+            buffer.upsert(toRecent(comment, authorUsername));
+        }
+    }
+
+    // For writers that do not have the author at hand; looks the username up
+    public void commentSaved(Comment comment) {
+        if (buffers.containsKey(comment.getGroupId())) {
+            commentSaved(comment, userRepository.findById(comment.getAuthorId())
+                    .map(User::getUsername)
+                    .orElse(null));
+        }
+    }
+
+    public void commentDeleted(Long groupId, Long commentId) {
+        GroupBuffer buffer = buffers.get(groupId);
+        if (buffer != null) {
+            buffer.remove(commentId);
+        }
+    }
+
+    /**
+     * Records a parent's new reply count. Replies do not bump the parent's version, so
+     * this replaces the count alone; call after the write commits.
+     */
+    public void replyCountChanged(Long groupId, Long commentId, int replyCount) {
+        GroupBuffer buffer = buffers.get(groupId);
+        if (buffer != null) {
+            buffer.setReplyCount(commentId, replyCount);
+        }
+    }
+
+    public void evict(Long groupId) {
+        buffers.remove(groupId);
+    }
+
+    public int getGroupCount() {
+        return buffers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.recent-comments.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - idleEvictMs;
+        buffers.values().removeIf(buffer -> buffer.lastReadAt < idleBefore);
+
+        // Still too many: drop the least recently read
+        int excess = buffers.size() - maxGroups;
+        if (excess > 0) {
+            buffers.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastReadAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(buffers::remove);
+        }
+    }
+
+    private void warm(Long groupId, GroupBuffer buffer, LocalDateTime since) {
+        try {
+            // Newest first
+            List<Comment> comments = new ArrayList<>();
+            List<RecentComment> loaded = primaryTemplate.execute(status -> {
+                comments.addAll(commentRepository.findRecentCommentsByGroupId(groupId, since));
+
+                Map<Long, String> usernames = new HashMap<>();
+                userRepository.findAllById(comments.stream().map(Comment::getAuthorId).distinct().toList())
+                        .forEach(user -> usernames.put(user.getId(), user.getUsername()));
+
+                List<RecentComment> recent = new ArrayList<>(Math.min(comments.size(), capacity));
+                for (Comment comment : comments) {
+                    if (recent.size() == capacity) {
+                        break;
+                    }
+                    recent.add(toRecent(comment, usernames.get(comment.getAuthorId())));
+                }
+                return recent;
+            });
+
+            // Everything after `since` was loaded unless the capacity cut the list short
+            LocalDateTime coveredSince = comments.size() > capacity
+                    ? loaded.get(loaded.size() - 1).createdAt()
+                    : since;
+            buffer.finishWarming(loaded.reversed(), coveredSince);
+        } catch (RuntimeException e) {
+            buffers.remove(groupId, buffer);
+            throw e;
+        }
+    }
+
+    private static RecentComment toRecent(Comment comment, String username) {
+        return new RecentComment(comment.getId(), comment.getVersion(), comment.getAuthorId(), username,
+                comment.getContent(), comment.getCreatedAt(), comment.getUpdatedAt(), comment.isEdited(),
+                comment.getParentId(), comment.getThreadPath(), comment.getDepth(), comment.getReplyCount());
+    }
+
+    private final class GroupBuffer {
+
+        // Oldest first
+        private final Deque<RecentComment> comments = new ArrayDeque<>();
+
+        // Changes that commit while warming, replayed over the loaded snapshot
+        private List<Runnable> pending = new ArrayList<>();
+
+        // Every comment created after this instant is in the buffer
+        private LocalDateTime coveredSince = LocalDateTime.MAX;
+
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        synchronized void finishWarming(List<RecentComment> loaded, LocalDateTime since) {
+            comments.addAll(loaded);
+            coveredSince = since;
+            List<Runnable> replay = pending;
+            pending = null;
+            replay.forEach(Runnable::run);
+        }
+
+        synchronized List<RecentComment> read(LocalDateTime since) {
+            lastReadAt = System.currentTimeMillis();
+            if (pending != null || since.isBefore(coveredSince)) {
+                return null;
+            }
+
+            List<RecentComment> result = new ArrayList<>();
+            Iterator<RecentComment> newestFirst = comments.descendingIterator();
+            while (newestFirst.hasNext()) {
+                RecentComment comment = newestFirst.next();
+                if (!comment.createdAt().isAfter(since)) {
+                    break;
+                }
+                result.add(comment);
+            }
+            return result;
+        }
+
+        synchronized void upsert(RecentComment comment) {
+            if (pending != null) {
+                pending.add(() -> upsert(comment));
+                return;
+            }
+
+            // Replace in place, ignoring versions older than the one held
+            Iterator<RecentComment> newestFirst = comments.descendingIterator();
+            while (newestFirst.hasNext()) {
+                RecentComment existing = newestFirst.next();
+                if (existing.id().equals(comment.id())) {
+                    if (existing.version() < comment.version()) {
+                        newestFirst.remove();
+                        insertByCreatedAt(comment);
+                    }
+                    return;
+                }
+            }
+
+            if (comment.createdAt().isBefore(coveredSince)) {
+                return;
+            }
+            insertByCreatedAt(comment);
+
+            while (comments.size() > capacity) {
+                coveredSince = comments.removeFirst().createdAt();
+            }
+        }
+
+        synchronized void remove(Long commentId) {
+            if (pending != null) {
+                pending.add(() -> remove(commentId));
+                return;
+            }
+            comments.removeIf(comment -> comment.id().equals(commentId));
+        }
+
+        synchronized void setReplyCount(Long commentId, int replyCount) {
+            if (pending != null) {
+                pending.add(() -> setReplyCount(commentId, replyCount));
+                return;
+            }
+
+            // Rotate through once, swapping the matching entry in where it stood
+            for (int i = comments.size(); i > 0; i--) {
+                RecentComment comment = comments.removeFirst();
+                comments.addLast(comment.id().equals(commentId) ? comment.withReplyCount(replyCount) : comment);
+            }
+        }
+
+        // Commits can land slightly out of creation order, so walk back from the newest
+        private void insertByCreatedAt(RecentComment comment) {
+            if (comments.isEmpty() || !comment.createdAt().isBefore(comments.peekLast().createdAt())) {
+                comments.addLast(comment);
+                return;
+            }
+
+            Deque<RecentComment> newer = new ArrayDeque<>();
+            while (!comments.isEmpty() && comment.createdAt().isBefore(comments.peekLast().createdAt())) {
+                newer.addFirst(comments.removeLast());
+            }
+            comments.addLast(comment);
+            comments.addAll(newer);
+        }
+    }
+}
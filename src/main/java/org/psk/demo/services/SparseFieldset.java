@@ -0,0 +1,75 @@
+package org.psk.demo.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps the response fields a client asked for with {@code ?fields=} to the entity
+ * attributes that have to be selected to produce them.
+ */
+public final class SparseFieldset {
+
+    // Response field -> entity attributes it is built from, in response order
+    private final Map<String, List<String>> attributesByField;
+
+    private SparseFieldset(Map<String, List<String>> attributesByField) {
+        this.attributesByField = attributesByField;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses a comma-separated field list, keeping the canonical field order.
+     *
+     * @throws IllegalArgumentException if a field is not known
+     */
+    public Set<String> parse(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!attributesByField.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name
+                        + ". Allowed fields: " + String.join(", ", attributesByField.keySet()));
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("No fields requested");
+        }
+
+        Set<String> ordered = new LinkedHashSet<>(attributesByField.keySet());
+        ordered.retainAll(requested);
+        return ordered;
+    }
+
+    public Set<String> attributesFor(Collection<String> fields) {
+        Set<String> attributes = new LinkedHashSet<>();
+        for (String field : fields) {
+            attributes.addAll(attributesByField.get(field));
+        }
+        return attributes;
+    }
+
+    public static class Builder {
+        private final Map<String, List<String>> attributesByField = new LinkedHashMap<>();
+
+        public Builder field(String field, String... attributes) {
+            attributesByField.put(field, Arrays.asList(attributes));
+            return this;
+        }
+
+        public SparseFieldset build() {
+            return new SparseFieldset(attributesByField);
+        }
+    }
+}
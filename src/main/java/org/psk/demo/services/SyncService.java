@@ -0,0 +1,92 @@
+package org.psk.demo.services;
+
+import org.psk.demo.dto.response.CommentResponse;
+import org.psk.demo.dto.response.GroupChangesResponse;
+import org.psk.demo.dto.response.TaskResponse;
+import org.psk.demo.entity.ChangeEntityType;
+import org.psk.demo.entity.Group;
+import org.psk.demo.entity.Tombstone;
+import org.psk.demo.entity.User;
+import org.psk.demo.repository.GroupRepository;
+import org.psk.demo.repository.TombstoneRepository;
+import org.psk.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional(readOnly = true)
+public class SyncService {
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CommentService commentService;
+
+    /**
+     * Returns everything that changed in a group after the given watermark. A watermark
+     * of 0 returns the full task and comment lists.
+     */
+    public GroupChangesResponse getChangesSince(Long groupId, long since, Long userId) {
+        try {
+            // Verify user has access to the group
+            Optional<Group> groupOpt = groupRepository.findById(groupId);
+            if (groupOpt.isEmpty()) {
+                return new GroupChangesResponse("Group not found!", false);
+            }
+
+            Group group = groupOpt.get();
+            Optional<User> userOpt = userRepository.findById(userId);
+            if (userOpt.isEmpty()) {
+                return new GroupChangesResponse("User not found!", false);
+            }
+
+            User user = userOpt.get();
+            if (!group.isMember(user) && !group.isCreator(user)) {
+                return new GroupChangesResponse("Access denied! You are not a member of this group.", false);
+            }
+
+            // Read the watermark first; everything at or below it has already committed
+            long watermark = changeTracker.currentChangeSeq(groupId);
+
+            List<TaskResponse> tasks = taskService.getTasksChangedBetween(groupId, since, watermark);
+            List<CommentResponse> comments = commentService.getCommentsChangedBetween(
+                    groupId, since, watermark, userId, group.getCreator().getId());
+
+            List<Long> deletedTaskIds = new ArrayList<>();
+            List<Long> deletedCommentIds = new ArrayList<>();
+            if (since > 0) {
+                for (Tombstone tombstone : tombstoneRepository.findChangesBetween(groupId, since, watermark)) {
+                    if (tombstone.getEntityType() == ChangeEntityType.TASK) {
+                        deletedTaskIds.add(tombstone.getEntityId());
+                    } else {
+                        deletedCommentIds.add(tombstone.getEntityId());
+                    }
+                }
+            }
+
+            return new GroupChangesResponse("Changes retrieved successfully!", tasks, comments,
+                    deletedTaskIds, deletedCommentIds, watermark, true);
+
+        } catch (Exception e) {
+            return new GroupChangesResponse("Could not retrieve changes! " + e.getMessage(), false);
+        }
+    }
+}
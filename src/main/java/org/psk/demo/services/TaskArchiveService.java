@@ -0,0 +1,87 @@
+package org.psk.demo.services;
+
+import org.psk.demo.dto.response.ArchivedTaskPageResponse;
+import org.psk.demo.dto.response.TaskResponse;
+import org.psk.demo.entity.ArchivedTask;
+import org.psk.demo.entity.User;
+import org.psk.demo.repository.ArchivedTaskRepository;
+import org.psk.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read access to tasks moved out of the board by TaskArchiver.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TaskArchiveService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Pages through a group's archived tasks, most recently finished first
+     */
+    public ArchivedTaskPageResponse getArchivedTasks(Long groupId, int page, int size) {
+        try {
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+            // Fetch one extra row to learn whether another page exists
+            List<ArchivedTask> tasks = archivedTaskRepository.findByGroupIdOrderByUpdatedAtDesc(
+                    groupId, PageRequest.of(Math.max(page, 0), pageSize + 1));
+
+            boolean hasMore = tasks.size() > pageSize;
+            if (hasMore) {
+                tasks = tasks.subList(0, pageSize);
+            }
+
+            Set<Long> userIds = new HashSet<>();
+            for (ArchivedTask task : tasks) {
+                userIds.add(task.getCreatedBy());
+                if (task.getUserId() != null) {
+                    userIds.add(task.getUserId());
+                }
+            }
+            Map<Long, String> usernames = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, User::getUsername));
+
+            List<TaskResponse> taskResponses = tasks.stream()
+                    .map(task -> convertToTaskResponse(task, usernames))
+                    .collect(Collectors.toList());
+
+            return new ArchivedTaskPageResponse("Archived tasks retrieved successfully", taskResponses, page, hasMore, true);
+        } catch (Exception e) {
+            return new ArchivedTaskPageResponse("Failed to retrieve archived tasks: " + e.getMessage(), false);
+        }
+    }
+
+    private TaskResponse convertToTaskResponse(ArchivedTask task, Map<Long, String> usernames) {
+        TaskResponse response = new TaskResponse();
+        response.setId(task.getId());
+        response.setVersion(task.getVersion());
+        response.setTitle(task.getTitle());
+        response.setDescription(task.getDescription());
+        response.setDeadline(task.getDeadline());
+        response.setStatus(task.getStatus());
+        response.setGroupId(task.getGroupId());
+        response.setAssignedUserId(task.getUserId());
+        response.setAssignedUsername(task.getUserId() != null ? usernames.get(task.getUserId()) : null);
+        response.setCreatedBy(task.getCreatedBy());
+        response.setCreatedByUsername(usernames.get(task.getCreatedBy()));
+        response.setCreatedAt(task.getCreatedAt());
+        response.setUpdatedAt(task.getUpdatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package org.psk.demo.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves DONE tasks that have not changed for {@code done-age-days} out of the tasks
+ * table, together with their revisions, into archived_tasks and archived_task_revisions.
+ * Work is done one group at a time in small transactions. Each batch takes the group's
+ * change sequence first, the same lock order as normal task writes, and leaves
+ * tombstones and outbox events behind so sync clients and subscribers see the tasks go.
+ */
+@Component
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private static final String FIND_GROUPS = """
+            SELECT DISTINCT t.group_id FROM tasks t
+            JOIN groups g ON g.id = t.group_id AND g.deleted_at IS NULL
+            WHERE t.status = 'DONE' AND t.updated_at < ?""";
+
+    /*
+     * Tasks in a subtask hierarchy stay live so rollups and subtrees remain whole.
+     * Archived tasks are published as TASK_DELETED with "archived": true, since a new
+     * event type would violate the enum check Hibernate put on existing outbox tables.
+     */
+    private static final String ARCHIVE_BATCH = """
+            WITH moved AS (
+                DELETE FROM tasks WHERE group_id = ? AND id IN (
+                    SELECT id FROM tasks
+                    WHERE group_id = ? AND status = 'DONE' AND updated_at < ?
+                      AND parent_id IS NULL
+                      AND NOT EXISTS (SELECT 1 FROM task_closure c WHERE c.ancestor_id = tasks.id)
+                    ORDER BY id LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, version, title, description, deadline, status, group_id, user_id,
+                          created_by, created_at, updated_at
+            ), moved_revisions AS (
+                DELETE FROM task_revisions r USING moved m WHERE r.task_id = m.id
+                RETURNING r.id, r.task_id, r.group_id, r.version, r.type, r.fields, r.changed_by, r.changed_at
+            ), archived_revisions AS (
+                INSERT INTO archived_task_revisions (id, task_id, group_id, version, type, fields, changed_by, changed_at)
+                SELECT * FROM moved_revisions
+            ), unlinked AS (
+                DELETE FROM task_dependencies d USING moved m
+                WHERE d.group_id = m.group_id AND (d.task_id = m.id OR d.depends_on_task_id = m.id)
+            ), tombstoned AS (
+                INSERT INTO tombstones (group_id, entity_type, entity_id, change_seq, deleted_at)
+                SELECT group_id, 'TASK', id, ?, now() FROM moved
+            ), published AS (
+                INSERT INTO outbox_events (aggregate_type, aggregate_id, group_id, event_type, payload, created_at)
+                SELECT 'TASK', id, group_id, 'TASK_DELETED',
+                       json_build_object('id', id, 'groupId', group_id, 'archived', true)::text, now()
+                FROM moved
+            )
+            INSERT INTO archived_tasks (id, version, title, description, deadline, status, group_id, user_id,
+                                        created_by, created_at, updated_at, archived_at)
+            SELECT id, version, title, description, deadline, status, group_id, user_id,
+                   created_by, created_at, updated_at, now()
+            FROM moved
+            RETURNING id""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private GroupStatsService groupStatsService;
+
+    @Autowired
+    private TaskDependencyGraph dependencyGraph;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.done-age-days:90}")
+    private long doneAgeDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}", initialDelayString = "${app.archive.interval-ms:3600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(doneAgeDays);
+        List<Long> groupIds = jdbcTemplate.queryForList(FIND_GROUPS, Long.class, cutoff);
+
+        for (Long groupId : groupIds) {
+            try {
+                Integer moved;
+                do {
+                    moved = transactionTemplate.execute(status -> archiveBatch(groupId, cutoff));
+                } while (moved != null && moved == batchSize);
+            } catch (RuntimeException e) {
+                // Leave this group for the next run rather than stopping every other group
+                log.error("Could not archive done tasks of group {}; retrying on the next run", groupId, e);
+            }
+        }
+    }
+
+    private int archiveBatch(Long groupId, LocalDateTime cutoff) {
+        // Every task a batch archives shares one step of the group's change sequence
+        long changeSeq = changeTracker.nextChangeSeq(groupId);
+        List<Long> moved = jdbcTemplate.queryForList(ARCHIVE_BATCH, Long.class,
+                groupId, groupId, cutoff, batchSize, changeSeq);
+        if (!moved.isEmpty()) {
+            // group_stats counts live tasks only
+            groupStatsService.tasksAdded(groupId, 0, 0, -moved.size());
+            TransactionHooks.afterCommit(() -> dependencyGraph.tasksRemoved(groupId, moved));
+        }
+        return moved.size();
+    }
+}
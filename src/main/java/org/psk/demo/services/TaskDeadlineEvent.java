@@ -0,0 +1,15 @@
+package org.psk.demo.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link DeadlineScheduler} when a task is about to be due or has gone
+ * overdue. Delivery is at-least-once: a restart may repeat a due-soon event.
+ */
+public record TaskDeadlineEvent(Long taskId, Long groupId, LocalDateTime deadline, Type type) {
+
+    public enum Type {
+        DUE_SOON,
+        OVERDUE
+    }
+}
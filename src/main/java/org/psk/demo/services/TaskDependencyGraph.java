@@ -0,0 +1,286 @@
+package org.psk.demo.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory adjacency of each group's task dependencies, kept in a topological order
+ * that is repaired incrementally as edges are added (Pearce and Kelly): an edge that
+ * already agrees with the order costs nothing, and one that does not only reorders the
+ * tasks between its two ends, which is also where a cycle would have to close. A
+ * group's graph is loaded from task_dependencies on first use, always from the primary,
+ * and only holds tasks that have at least one edge.
+ * <p>
+ * New edges are applied inside the writing transaction, while it holds the group's
+ * change sequence lock, so the next writer's cycle check already sees them; they are
+ * taken back out if the transaction rolls back. Removals are applied after commit.
+ */
+@Component
+public class TaskDependencyGraph {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, GroupGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * A task and the tasks it depends on, in topological order position.
+     */
+    public record TaskNode(long taskId, List<Long> dependsOn) {
+    }
+
+    /**
+     * Adds the edge unless it would close a cycle, returning false in that case. Call
+     * inside the writing transaction after taking the group's change sequence.
+     */
+    public boolean addDependency(Long groupId, Long taskId, Long dependsOnTaskId) {
+        GroupGraph graph = graph(groupId);
+        if (graph.contains(dependsOnTaskId, taskId)) {
+            return true;
+        }
+        if (!graph.addEdge(dependsOnTaskId, taskId)) {
+            return false;
+        }
+        TransactionHooks.afterRollback(() -> graph.removeEdge(dependsOnTaskId, taskId));
+        return true;
+    }
+
+    public void dependencyRemoved(Long groupId, Long taskId, Long dependsOnTaskId) {
+        GroupGraph graph = graphs.get(groupId);
+        if (graph != null) {
+            graph.removeEdge(dependsOnTaskId, taskId);
+        }
+    }
+
+    public void tasksRemoved(Long groupId, Collection<Long> taskIds) {
+        GroupGraph graph = graphs.get(groupId);
+        if (graph != null) {
+            graph.removeTasks(taskIds);
+        }
+    }
+
+    public void evict(Long groupId) {
+        graphs.remove(groupId);
+    }
+
+    /**
+     * Every task of the group that has a dependency or a dependent, each after all of
+     * the tasks it depends on.
+     */
+    public List<TaskNode> topologicalOrder(Long groupId) {
+        return graph(groupId).snapshot();
+    }
+
+    private GroupGraph graph(Long groupId) {
+        GroupGraph graph = graphs.computeIfAbsent(groupId, id -> new GroupGraph());
+        graph.ensureLoaded(groupId);
+        return graph;
+    }
+
+    private static final class Node {
+        final long taskId;
+        int ord;
+        final List<Node> dependents = new ArrayList<>(2);
+        final List<Node> dependsOn = new ArrayList<>(2);
+
+        Node(long taskId, int ord) {
+            this.taskId = taskId;
+            this.ord = ord;
+        }
+
+        boolean isIsolated() {
+            return dependents.isEmpty() && dependsOn.isEmpty();
+        }
+    }
+
+    private final class GroupGraph {
+
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private int nextOrd;
+        private boolean loaded;
+
+        synchronized void ensureLoaded(Long groupId) {
+            if (loaded) {
+                return;
+            }
+            jdbcTemplate.query("SELECT task_id, depends_on_task_id FROM task_dependencies WHERE group_id = ?",
+                    rs -> {
+                        Node dependsOn = node(rs.getLong("depends_on_task_id"));
+                        Node task = node(rs.getLong("task_id"));
+                        dependsOn.dependents.add(task);
+                        task.dependsOn.add(dependsOn);
+                    }, groupId);
+            renumber();
+            loaded = true;
+        }
+
+        synchronized boolean contains(long from, long to) {
+            Node node = nodes.get(from);
+            return node != null && node.dependents.stream().anyMatch(dependent -> dependent.taskId == to);
+        }
+
+        // Edge from -> to: "to" depends on "from", so "from" must come first
+        synchronized boolean addEdge(long from, long to) {
+            Node x = node(from);
+            Node y = node(to);
+            if (x.ord > y.ord && !reorder(x, y)) {
+                dropIfIsolated(x);
+                dropIfIsolated(y);
+                return false;
+            }
+            x.dependents.add(y);
+            y.dependsOn.add(x);
+            return true;
+        }
+
+        synchronized void removeEdge(long from, long to) {
+            Node x = nodes.get(from);
+            Node y = nodes.get(to);
+            if (x == null || y == null) {
+                return;
+            }
+            x.dependents.remove(y);
+            y.dependsOn.remove(x);
+            dropIfIsolated(x);
+            dropIfIsolated(y);
+        }
+
+        synchronized void removeTasks(Collection<Long> taskIds) {
+            for (Long taskId : taskIds) {
+                Node node = nodes.remove(taskId);
+                if (node == null) {
+                    continue;
+                }
+                for (Node dependent : node.dependents) {
+                    dependent.dependsOn.remove(node);
+                    dropIfIsolated(dependent);
+                }
+                for (Node dependsOn : node.dependsOn) {
+                    dependsOn.dependents.remove(node);
+                    dropIfIsolated(dependsOn);
+                }
+            }
+        }
+
+        synchronized List<TaskNode> snapshot() {
+            List<Node> ordered = new ArrayList<>(nodes.values());
+            ordered.sort(Comparator.comparingInt(node -> node.ord));
+
+            List<TaskNode> result = new ArrayList<>(ordered.size());
+            for (Node node : ordered) {
+                List<Long> dependsOn = new ArrayList<>(node.dependsOn.size());
+                node.dependsOn.forEach(dependency -> dependsOn.add(dependency.taskId));
+                result.add(new TaskNode(node.taskId, dependsOn));
+            }
+            return result;
+        }
+
+        /*
+         * x currently sits after y. Collect the tasks reachable from y that sit before x,
+         * and the tasks x is reachable from that sit after y; reaching x itself from y
+         * means a cycle. Otherwise hand the positions those tasks occupied back out, with
+         * the x side first, each side keeping its own relative order.
+         */
+        private boolean reorder(Node x, Node y) {
+            int lower = y.ord;
+            int upper = x.ord;
+
+            List<Node> forward = new ArrayList<>();
+            Set<Node> seen = new HashSet<>();
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(y);
+            seen.add(y);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                forward.add(node);
+                for (Node dependent : node.dependents) {
+                    if (dependent == x) {
+                        return false;
+                    }
+                    if (dependent.ord < upper && seen.add(dependent)) {
+                        stack.push(dependent);
+                    }
+                }
+            }
+
+            List<Node> backward = new ArrayList<>();
+            stack.push(x);
+            seen.add(x);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                backward.add(node);
+                for (Node dependsOn : node.dependsOn) {
+                    if (dependsOn.ord > lower && seen.add(dependsOn)) {
+                        stack.push(dependsOn);
+                    }
+                }
+            }
+
+            Comparator<Node> byOrd = Comparator.comparingInt(node -> node.ord);
+            forward.sort(byOrd);
+            backward.sort(byOrd);
+
+            List<Node> moved = new ArrayList<>(backward.size() + forward.size());
+            moved.addAll(backward);
+            moved.addAll(forward);
+            int[] positions = moved.stream().mapToInt(node -> node.ord).sorted().toArray();
+            for (int i = 0; i < positions.length; i++) {
+                moved.get(i).ord = positions[i];
+            }
+            return true;
+        }
+
+        // Kahn's algorithm over the freshly loaded edges
+        private void renumber() {
+            Map<Node, Integer> waitingOn = new HashMap<>();
+            Deque<Node> ready = new ArrayDeque<>();
+            for (Node node : nodes.values()) {
+                waitingOn.put(node, node.dependsOn.size());
+                if (node.dependsOn.isEmpty()) {
+                    ready.add(node);
+                }
+            }
+
+            nextOrd = 0;
+            while (!ready.isEmpty()) {
+                Node node = ready.poll();
+                node.ord = nextOrd++;
+                for (Node dependent : node.dependents) {
+                    if (waitingOn.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+
+            // Only reachable if the table already holds a cycle; keep the positions unique
+            waitingOn.forEach((node, waiting) -> {
+                if (waiting > 0) {
+                    node.ord = nextOrd++;
+                }
+            });
+        }
+
+        private Node node(long taskId) {
+            return nodes.computeIfAbsent(taskId, id -> new Node(id, nextOrd++));
+        }
+
+        private void dropIfIsolated(Node node) {
+            if (node.isIsolated()) {
+                nodes.remove(node.taskId);
+            }
+        }
+    }
+}
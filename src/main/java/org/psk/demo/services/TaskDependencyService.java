@@ -0,0 +1,255 @@
+package org.psk.demo.services;
+
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.psk.demo.dto.response.TaskGraphResponse;
+import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * "Blocked by" links between tasks of a group. Writes take the group's change sequence
+ * first, so edge changes and task deletions in a group are serialized, and check for
+ * cycles against TaskDependencyGraph; the queries walk the in-memory graph and only
+ * read the titles, statuses and deadlines of the tasks it holds.
+ */
+@Service
+public class TaskDependencyService {
+
+    private static final String INSERT_DEPENDENCY = """
+            INSERT INTO task_dependencies (task_id, depends_on_task_id, group_id, created_by, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (task_id, depends_on_task_id) DO NOTHING""";
+
+    private static final String FIND_TASKS =
+            "SELECT id, title, status, deadline FROM tasks WHERE group_id = ? AND id = ANY(?)";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private TaskDependencyGraph dependencyGraph;
+
+    public AuthenticationResponse addDependency(Long taskId, Long dependsOnTaskId, Long userId) {
+        try {
+            if (taskId.equals(dependsOnTaskId)) {
+                return new AuthenticationResponse("Task cannot depend on itself", null, null, false);
+            }
+
+            Optional<Long> groupId = taskRepository.findGroupIdById(taskId);
+            if (groupId.isEmpty()) {
+                return new AuthenticationResponse("Task not found", null, null, false);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                changeTracker.nextChangeSeq(groupId.get());
+
+                Integer sameGroup = jdbcTemplate.queryForObject(
+                        "SELECT count(*) FROM tasks WHERE group_id = ? AND id IN (?, ?)",
+                        Integer.class, groupId.get(), taskId, dependsOnTaskId);
+                if (sameGroup == null || sameGroup < 2) {
+                    throw new IllegalArgumentException("Task " + dependsOnTaskId + " is not in the same group");
+                }
+
+                if (!dependencyGraph.addDependency(groupId.get(), taskId, dependsOnTaskId)) {
+                    throw new IllegalArgumentException("Task " + dependsOnTaskId + " already depends on this task, directly or indirectly");
+                }
+                jdbcTemplate.update(INSERT_DEPENDENCY, taskId, dependsOnTaskId, groupId.get(), userId, LocalDateTime.now());
+            });
+
+            return new AuthenticationResponse("Dependency added successfully", null, taskId, true);
+        } catch (Exception e) {
+            return new AuthenticationResponse("Failed to add dependency: " + e.getMessage(), null, null, false);
+        }
+    }
+
+    public AuthenticationResponse removeDependency(Long taskId, Long dependsOnTaskId, Long userId) {
+        try {
+            Optional<Long> groupId = taskRepository.findGroupIdById(taskId);
+            if (groupId.isEmpty()) {
+                return new AuthenticationResponse("Task not found", null, null, false);
+            }
+
+            Integer removed = transactionTemplate.execute(status -> {
+                changeTracker.nextChangeSeq(groupId.get());
+                int deleted = jdbcTemplate.update(
+                        "DELETE FROM task_dependencies WHERE task_id = ? AND depends_on_task_id = ?",
+                        taskId, dependsOnTaskId);
+                TransactionHooks.afterCommit(() ->
+                        dependencyGraph.dependencyRemoved(groupId.get(), taskId, dependsOnTaskId));
+                return deleted;
+            });
+
+            if (removed == null || removed == 0) {
+                return new AuthenticationResponse("Dependency not found", null, null, false);
+            }
+            return new AuthenticationResponse("Dependency removed successfully", null, taskId, true);
+        } catch (Exception e) {
+            return new AuthenticationResponse("Failed to remove dependency: " + e.getMessage(), null, null, false);
+        }
+    }
+
+    /**
+     * Drops every edge of a deleted task. Must run in the deleting transaction.
+     */
+    public void taskDeleted(Long groupId, Long taskId) {
+        jdbcTemplate.update("DELETE FROM task_dependencies WHERE group_id = ? AND (task_id = ? OR depends_on_task_id = ?)",
+                groupId, taskId, taskId);
+        TransactionHooks.afterCommit(() -> dependencyGraph.tasksRemoved(groupId, List.of(taskId)));
+    }
+
+    /**
+     * The group's linked tasks, each listed after every task it depends on.
+     */
+    public TaskGraphResponse getTopologicalOrder(Long groupId) {
+        try {
+            List<TaskGraphResponse.GraphTask> tasks = findOrderedTasks(groupId);
+            return new TaskGraphResponse("Task order retrieved successfully", groupId, tasks, tasks.size(), true);
+        } catch (Exception e) {
+            return new TaskGraphResponse("Failed to retrieve task order: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Open tasks waiting on at least one open task they depend on, by deadline.
+     */
+    public TaskGraphResponse getBlockedTasks(Long groupId) {
+        try {
+            List<TaskGraphResponse.GraphTask> ordered = findOrderedTasks(groupId);
+            Map<Long, TaskGraphResponse.GraphTask> byId = new HashMap<>(ordered.size() * 2);
+            ordered.forEach(task -> byId.put(task.getTaskId(), task));
+
+            List<TaskGraphResponse.GraphTask> blocked = new ArrayList<>();
+            for (TaskGraphResponse.GraphTask task : ordered) {
+                if (isOpen(task) && task.getDependsOn().stream().map(byId::get).anyMatch(this::isOpen)) {
+                    blocked.add(task);
+                }
+            }
+            blocked.sort(Comparator.comparing(TaskGraphResponse.GraphTask::getDeadline)
+                    .thenComparing(TaskGraphResponse.GraphTask::getTaskId));
+
+            return new TaskGraphResponse("Blocked tasks retrieved successfully", groupId, blocked, blocked.size(), true);
+        } catch (Exception e) {
+            return new TaskGraphResponse("Failed to retrieve blocked tasks: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * The longest chain of open tasks that must be finished one after another, first
+     * task first. Among chains of equal length the one ending at the earliest deadline
+     * wins, and each step goes through the earliest-due task it could. One pass over the
+     * graph in topological order.
+     */
+    public TaskGraphResponse getCriticalPath(Long groupId) {
+        try {
+            List<TaskGraphResponse.GraphTask> ordered = findOrderedTasks(groupId);
+            Map<Long, TaskGraphResponse.GraphTask> byId = new HashMap<>(ordered.size() * 2);
+            ordered.forEach(task -> byId.put(task.getTaskId(), task));
+
+            // Length of the longest open chain ending at each open task, and the step before it
+            Map<Long, Integer> chainLength = new HashMap<>();
+            Map<Long, Long> previousStep = new HashMap<>();
+            TaskGraphResponse.GraphTask end = null;
+
+            for (TaskGraphResponse.GraphTask task : ordered) {
+                if (!isOpen(task)) {
+                    continue;
+                }
+
+                int length = 1;
+                TaskGraphResponse.GraphTask previous = null;
+                for (Long dependsOnId : task.getDependsOn()) {
+                    Integer before = chainLength.get(dependsOnId);
+                    if (before == null) {
+                        continue;
+                    }
+                    TaskGraphResponse.GraphTask candidate = byId.get(dependsOnId);
+                    if (before + 1 > length || (before + 1 == length && dueEarlier(candidate, previous))) {
+                        length = before + 1;
+                        previous = candidate;
+                    }
+                }
+
+                chainLength.put(task.getTaskId(), length);
+                if (previous != null) {
+                    previousStep.put(task.getTaskId(), previous.getTaskId());
+                }
+
+                int endLength = end != null ? chainLength.get(end.getTaskId()) : 0;
+                if (length > endLength || (length == endLength && dueEarlier(task, end))) {
+                    end = task;
+                }
+            }
+
+            List<TaskGraphResponse.GraphTask> path = new ArrayList<>();
+            for (Long step = end != null ? end.getTaskId() : null; step != null; step = previousStep.get(step)) {
+                path.add(byId.get(step));
+            }
+            path = path.reversed();
+
+            return new TaskGraphResponse("Critical path retrieved successfully", groupId, path, path.size(), true);
+        } catch (Exception e) {
+            return new TaskGraphResponse("Failed to retrieve critical path: " + e.getMessage(), false);
+        }
+    }
+
+    // The graph's tasks in topological order, skipping any whose row is already gone
+    private List<TaskGraphResponse.GraphTask> findOrderedTasks(Long groupId) {
+        List<TaskDependencyGraph.TaskNode> nodes = dependencyGraph.topologicalOrder(groupId);
+        if (nodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Long[] ids = nodes.stream().map(TaskDependencyGraph.TaskNode::taskId).toArray(Long[]::new);
+        Map<Long, TaskGraphResponse.GraphTask> found = new HashMap<>(ids.length * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_TASKS);
+            statement.setLong(1, groupId);
+            statement.setArray(2, connection.createArrayOf("bigint", ids));
+            return statement;
+        }, rs -> {
+            long id = rs.getLong("id");
+            found.put(id, new TaskGraphResponse.GraphTask(id, rs.getString("title"),
+                    TaskStatus.valueOf(rs.getString("status")),
+                    rs.getObject("deadline", LocalDateTime.class), null));
+        });
+
+        List<TaskGraphResponse.GraphTask> ordered = new ArrayList<>(found.size());
+        for (TaskDependencyGraph.TaskNode node : nodes) {
+            TaskGraphResponse.GraphTask task = found.get(node.taskId());
+            if (task != null) {
+                task.setDependsOn(node.dependsOn());
+                ordered.add(task);
+            }
+        }
+        return ordered;
+    }
+
+    private boolean isOpen(TaskGraphResponse.GraphTask task) {
+        return task != null && task.getStatus() != TaskStatus.DONE;
+    }
+
+    private static boolean dueEarlier(TaskGraphResponse.GraphTask task, TaskGraphResponse.GraphTask than) {
+        return than == null || task.getDeadline().isBefore(than.getDeadline());
+    }
+}
@@ -0,0 +1,250 @@
+package org.psk.demo.services;
+
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.psk.demo.dto.response.TaskProgressResponse;
+import org.psk.demo.entity.OutboxEventType;
+import org.psk.demo.entity.Task;
+import org.psk.demo.entity.TaskRollup;
+import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.repository.TaskRepository;
+import org.psk.demo.repository.TaskRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Subtask hierarchy of arbitrary depth. task_closure pairs every task with each of its
+ * ancestors, so a subtree is one index range and never needs a recursive query, and
+ * task_rollups holds the status counts under each parent. Both are written in SQL in the
+ * transaction of the change, after the group's change sequence is taken, so hierarchy
+ * changes within a group are serialized. A status change adjusts one rollup row per
+ * ancestor; moving a subtree relinks it in three set-based statements.
+ */
+@Service
+public class TaskHierarchyService {
+
+    // Adds the counts to every ancestor of the task, creating rollup rows as needed
+    private static final String ADJUST_ANCESTORS = """
+            INSERT INTO task_rollups (task_id, group_id, todo_tasks, in_progress_tasks, done_tasks)
+            SELECT ancestor_id, group_id, ?, ?, ? FROM task_closure WHERE descendant_id = ?
+            ON CONFLICT (task_id) DO UPDATE SET
+                todo_tasks = task_rollups.todo_tasks + EXCLUDED.todo_tasks,
+                in_progress_tasks = task_rollups.in_progress_tasks + EXCLUDED.in_progress_tasks,
+                done_tasks = task_rollups.done_tasks + EXCLUDED.done_tasks""";
+
+    // Pairs the parent and its ancestors with the task and everything below it
+    private static final String LINK_SUBTREE = """
+            INSERT INTO task_closure (ancestor_id, descendant_id, depth, group_id)
+            SELECT a.ancestor_id, s.descendant_id, a.depth + s.depth + 1, ?
+            FROM (SELECT CAST(? AS bigint) AS ancestor_id, 0 AS depth
+                  UNION ALL SELECT ancestor_id, depth FROM task_closure WHERE descendant_id = ?) a
+            CROSS JOIN (SELECT CAST(? AS bigint) AS descendant_id, 0 AS depth
+                  UNION ALL SELECT descendant_id, depth FROM task_closure WHERE ancestor_id = ?) s""";
+
+    // Cuts the task and everything below it off from the task's current ancestors
+    private static final String UNLINK_SUBTREE = """
+            DELETE FROM task_closure
+            WHERE ancestor_id IN (SELECT ancestor_id FROM task_closure WHERE descendant_id = ?)
+              AND (descendant_id = ? OR descendant_id IN (SELECT descendant_id FROM task_closure WHERE ancestor_id = ?))""";
+
+    // Paths running through a removed task get one step shorter
+    private static final String SHORTEN_PATHS = """
+            UPDATE task_closure SET depth = depth - 1
+            WHERE ancestor_id IN (SELECT ancestor_id FROM task_closure WHERE descendant_id = ?)
+              AND descendant_id IN (SELECT descendant_id FROM task_closure WHERE ancestor_id = ?)""";
+
+    // Moves a deleted task's children up to its parent and publishes each of them as updated
+    private static final String REPARENT_CHILDREN = """
+            WITH reparented AS (
+                UPDATE tasks SET parent_id = ?, change_seq = ?, updated_at = ?, version = version + 1
+                WHERE group_id = ? AND id IN (SELECT descendant_id FROM task_closure WHERE ancestor_id = ? AND depth = 1)
+                RETURNING id, version, title, description, deadline, status, group_id, user_id,
+                          created_by, rank, parent_id
+            )
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, group_id, event_type, payload, created_at)
+            SELECT 'TASK', id, group_id, 'TASK_UPDATED',
+                   json_build_object(
+                       'id', id, 'groupId', group_id, 'version', version,
+                       'title', title, 'description', description,
+                       'deadline', to_char(deadline, 'YYYY-MM-DD"T"HH24:MI:SS'),
+                       'status', status, 'assignedUserId', user_id, 'createdBy', created_by,
+                       'rank', rank, 'parentId', parent_id)::text,
+                   now()
+            FROM reparented""";
+
+    private static final String SUBTREE_COUNTS = """
+            SELECT t.status, r.todo_tasks, r.in_progress_tasks, r.done_tasks
+            FROM tasks t LEFT JOIN task_rollups r ON r.task_id = t.id
+            WHERE t.group_id = ? AND t.id = ?""";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskRollupRepository taskRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    /**
+     * Links a new task under its parent, or moves a task between its ancestors' counters
+     * when its status changed. Must run in the writing transaction, after the task is
+     * flushed; previousStatus is null for a new task.
+     */
+    public void taskSaved(Task task, TaskStatus previousStatus) {
+        if (previousStatus == null) {
+            if (task.getParentId() == null) {
+                return;
+            }
+            if (!existsInGroup(task.getGroupId(), task.getParentId())) {
+                throw new IllegalArgumentException("Parent task does not exist in this group");
+            }
+            jdbcTemplate.update(LINK_SUBTREE, task.getGroupId(), task.getParentId(), task.getParentId(),
+                    task.getId(), task.getId());
+            adjustAncestors(task.getId(), counts(task.getStatus(), 1));
+        } else if (previousStatus != task.getStatus()) {
+            long[] delta = counts(task.getStatus(), 1);
+            long[] removed = counts(previousStatus, 1);
+            for (int i = 0; i < delta.length; i++) {
+                delta[i] -= removed[i];
+            }
+            adjustAncestors(task.getId(), delta);
+        }
+    }
+
+    /**
+     * Takes a deleted task out of the hierarchy; its subtasks move up to its parent, each
+     * with a TASK_UPDATED outbox event. Must run in the deleting transaction, which holds
+     * the group's change sequence {@code changeSeq}.
+     */
+    public void taskDeleted(Task task, long changeSeq) {
+        adjustAncestors(task.getId(), counts(task.getStatus(), -1));
+        jdbcTemplate.update(REPARENT_CHILDREN, task.getParentId(), changeSeq, LocalDateTime.now(),
+                task.getGroupId(), task.getId());
+        jdbcTemplate.update(SHORTEN_PATHS, task.getId(), task.getId());
+        jdbcTemplate.update("DELETE FROM task_closure WHERE ancestor_id = ? OR descendant_id = ?", task.getId(), task.getId());
+        jdbcTemplate.update("DELETE FROM task_rollups WHERE task_id = ?", task.getId());
+    }
+
+    /**
+     * Moves the task, with all of its subtasks, under another task of the group, or to
+     * the top level when {@code parentId} is null.
+     */
+    public AuthenticationResponse setParent(Long taskId, Long parentId, Long userId) {
+        try {
+            if (taskId.equals(parentId)) {
+                return new AuthenticationResponse("Task cannot be its own parent", null, null, false);
+            }
+
+            Optional<Long> groupId = taskRepository.findGroupIdById(taskId);
+            if (groupId.isEmpty()) {
+                return new AuthenticationResponse("Task not found", null, null, false);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                long changeSeq = changeTracker.nextChangeSeq(groupId.get());
+
+                if (parentId != null) {
+                    if (!existsInGroup(groupId.get(), parentId)) {
+                        throw new IllegalArgumentException("Parent task does not exist in this group");
+                    }
+                    Integer below = jdbcTemplate.queryForObject(
+                            "SELECT count(*) FROM task_closure WHERE ancestor_id = ? AND descendant_id = ?",
+                            Integer.class, taskId, parentId);
+                    if (below != null && below > 0) {
+                        throw new IllegalArgumentException("Task cannot be moved under its own subtask");
+                    }
+                }
+
+                long[] subtree = subtreeCounts(groupId.get(), taskId);
+                adjustAncestors(taskId, negate(subtree));
+                jdbcTemplate.update(UNLINK_SUBTREE, taskId, taskId, taskId);
+                if (parentId != null) {
+                    jdbcTemplate.update(LINK_SUBTREE, groupId.get(), parentId, parentId, taskId, taskId);
+                    adjustAncestors(taskId, subtree);
+                }
+
+                jdbcTemplate.update("""
+                        UPDATE tasks SET parent_id = ?, change_seq = ?, updated_at = ?, version = version + 1
+                        WHERE group_id = ? AND id = ?""",
+                        parentId, changeSeq, LocalDateTime.now(), groupId.get(), taskId);
+                Task task = taskRepository.findById(taskId).orElseThrow();
+                outboxService.recordTask(OutboxEventType.TASK_UPDATED, task);
+            });
+
+            return new AuthenticationResponse("Task parent updated successfully", null, taskId, true);
+        } catch (Exception e) {
+            return new AuthenticationResponse("Failed to update task parent: " + e.getMessage(), null, null, false);
+        }
+    }
+
+    /**
+     * Status counts over all of the task's subtasks at any depth, read from its rollup row.
+     */
+    public TaskProgressResponse getProgress(Long taskId) {
+        try {
+            if (taskRepository.findGroupIdById(taskId).isEmpty()) {
+                return new TaskProgressResponse("Task not found", false);
+            }
+
+            TaskRollup rollup = taskRollupRepository.findById(taskId).orElseGet(TaskRollup::new);
+            long total = rollup.getTodoTasks() + rollup.getInProgressTasks() + rollup.getDoneTasks();
+            double percentComplete = total > 0 ? 100.0 * rollup.getDoneTasks() / total : 0;
+
+            return new TaskProgressResponse("Task progress retrieved successfully", taskId,
+                    rollup.getTodoTasks(), rollup.getInProgressTasks(), rollup.getDoneTasks(),
+                    total, percentComplete, true);
+        } catch (Exception e) {
+            return new TaskProgressResponse("Failed to retrieve task progress: " + e.getMessage(), false);
+        }
+    }
+
+    private boolean existsInGroup(Long groupId, Long taskId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM tasks WHERE group_id = ? AND id = ?",
+                Integer.class, groupId, taskId);
+        return count != null && count > 0;
+    }
+
+    // The task itself plus everything below it, as {todo, in progress, done}
+    private long[] subtreeCounts(Long groupId, Long taskId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(SUBTREE_COUNTS, groupId, taskId);
+        long[] counts = counts(TaskStatus.valueOf((String) row.get("status")), 1);
+        List<String> columns = List.of("todo_tasks", "in_progress_tasks", "done_tasks");
+        for (int i = 0; i < counts.length; i++) {
+            Number below = (Number) row.get(columns.get(i));
+            counts[i] += below != null ? below.longValue() : 0;
+        }
+        return counts;
+    }
+
+    private void adjustAncestors(Long taskId, long[] counts) {
+        jdbcTemplate.update(ADJUST_ANCESTORS, counts[0], counts[1], counts[2], taskId);
+    }
+
+    private static long[] counts(TaskStatus status, long count) {
+        return switch (status) {
+            case TODO -> new long[]{count, 0, 0};
+            case IN_PROGRESS -> new long[]{0, count, 0};
+            case DONE -> new long[]{0, 0, count};
+        };
+    }
+
+    private static long[] negate(long[] counts) {
+        return new long[]{-counts[0], -counts[1], -counts[2]};
+    }
+}
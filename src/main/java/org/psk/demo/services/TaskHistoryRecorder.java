@@ -0,0 +1,221 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.psk.demo.entity.Task;
+import org.psk.demo.entity.TaskRevisionType;
+import org.psk.demo.repository.TaskRevisionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Writes task revisions off the request path. Each committed task write is queued as
+ * a field-level delta, and a background writer inserts whatever has queued up in one
+ * JDBC batch, writing a full snapshot instead once the task is {@code snapshot-interval}
+ * versions past its last one. Version bumps that record no revision, such as moves and
+ * re-parenting, count towards that gap, so a rebuild never applies more than an
+ * interval's worth of deltas. History is best effort: revisions still queued when the
+ * process dies are lost, and a rebuild then carries the previous value until the next
+ * snapshot. A batch that fails is retried one revision at a time; a revision that still
+ * fails is logged and dropped, and the next revision of that task is written as a snapshot.
+ */
+@Component
+public class TaskHistoryRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskHistoryRecorder.class);
+
+    private static final String INSERT_REVISION =
+            "INSERT INTO task_revisions (task_id, group_id, version, type, fields, changed_by, changed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskRevisionRepository taskRevisionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.task-history.snapshot-interval:10}")
+    private int snapshotInterval;
+
+    @Value("${app.task-history.batch-size:200}")
+    private int batchSize;
+
+    private final BlockingQueue<PendingRevision> queue = new LinkedBlockingQueue<>();
+
+    // Tasks with a dropped revision, whose next revision must be a snapshot; only the writer thread uses it
+    private final Set<Long> needsSnapshot = new HashSet<>();
+
+    private Thread writer;
+
+    @PostConstruct
+    void start() {
+        writer = Thread.ofVirtual()
+                .name("task-history-writer")
+                .start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        writer.interrupt();
+        writer.join();
+    }
+
+    /**
+     * The tracked fields of a task, in the form they are stored in revisions.
+     */
+    public static Map<String, Object> fieldsOf(Task task) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("title", task.getTitle());
+        fields.put("description", task.getDescription());
+        fields.put("deadline", task.getDeadline() != null ? task.getDeadline().toString() : null);
+        fields.put("status", task.getStatus() != null ? task.getStatus().name() : null);
+        fields.put("assignedUserId", task.getUserId());
+        return fields;
+    }
+
+    /**
+     * Queues a revision for a committed write.
+     *
+     * @param previous the task's fields before the write, or null for a new task
+     */
+    public void record(Task task, Map<String, Object> previous, Long changedBy) {
+        Map<String, Object> current = fieldsOf(task);
+
+        Map<String, Object> delta = null;
+        if (previous != null) {
+            delta = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> field : current.entrySet()) {
+                if (!Objects.equals(field.getValue(), previous.get(field.getKey()))) {
+                    delta.put(field.getKey(), field.getValue());
+                }
+            }
+            if (delta.isEmpty()) {
+                return;
+            }
+        }
+
+        queue.add(new PendingRevision(task.getId(), task.getGroupId(), task.getVersion(),
+                current, delta, changedBy, LocalDateTime.now()));
+    }
+
+    private void run() {
+        List<PendingRevision> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: write out whatever is still queued
+            queue.drainTo(batch);
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                write(batch.subList(from, Math.min(from + batchSize, batch.size())));
+            }
+        }
+    }
+
+    private void write(List<PendingRevision> batch) {
+        try {
+            insert(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} task revisions as a batch, retrying one at a time", batch.size(), e);
+        }
+
+        for (PendingRevision pending : batch) {
+            try {
+                insert(List.of(pending));
+            } catch (RuntimeException e) {
+                // History must never take down the writer; later deltas would build on the lost one
+                log.error("Dropped revision {} of task {}; its next revision will be a snapshot",
+                        pending.version(), pending.taskId(), e);
+                needsSnapshot.add(pending.taskId());
+            }
+        }
+    }
+
+    private void insert(List<PendingRevision> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // A delta is useless without a snapshot under it, e.g. for tasks that predate history
+            Set<Long> deltaTaskIds = batch.stream()
+                    .filter(pending -> pending.delta() != null)
+                    .map(PendingRevision::taskId)
+                    .collect(Collectors.toSet());
+            Map<Long, Long> lastSnapshot = new HashMap<>();
+            if (!deltaTaskIds.isEmpty()) {
+                for (Object[] row : taskRevisionRepository.findLatestSnapshotVersions(deltaTaskIds)) {
+                    lastSnapshot.put((Long) row[0], (Long) row[1]);
+                }
+            }
+            lastSnapshot.keySet().removeAll(needsSnapshot);
+
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (PendingRevision pending : batch) {
+                Long snapshotVersion = lastSnapshot.get(pending.taskId());
+                boolean snapshot = pending.delta() == null
+                        || snapshotVersion == null
+                        || pending.version() - snapshotVersion >= snapshotInterval;
+                if (snapshot) {
+                    lastSnapshot.put(pending.taskId(), pending.version());
+                }
+
+                rows.add(new Object[]{
+                        pending.taskId(),
+                        pending.groupId(),
+                        pending.version(),
+                        (snapshot ? TaskRevisionType.SNAPSHOT : TaskRevisionType.DELTA).name(),
+                        toJson(snapshot ? pending.fields() : pending.delta()),
+                        pending.changedBy(),
+                        pending.changedAt()
+                });
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_REVISION, rows);
+        });
+
+        // Any task in the batch that needed a snapshot has one now
+        for (PendingRevision pending : batch) {
+            needsSnapshot.remove(pending.taskId());
+        }
+    }
+
+    private String toJson(Map<String, Object> fields) {
+        try {
+            return objectMapper.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize task revision", e);
+        }
+    }
+
+    private record PendingRevision(Long taskId, Long groupId, Long version, Map<String, Object> fields,
+                                   Map<String, Object> delta, Long changedBy, LocalDateTime changedAt) {
+    }
+}
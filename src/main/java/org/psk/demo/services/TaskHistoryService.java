@@ -0,0 +1,152 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.psk.demo.dto.response.TaskHistoryResponse;
+import org.psk.demo.dto.response.TaskRevisionResponse;
+import org.psk.demo.dto.response.TaskVersionResponse;
+import org.psk.demo.entity.ArchivedTaskRevision;
+import org.psk.demo.entity.TaskRevision;
+import org.psk.demo.entity.TaskRevisionType;
+import org.psk.demo.repository.ArchivedTaskRevisionRepository;
+import org.psk.demo.repository.TaskRevisionRepository;
+import org.psk.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class TaskHistoryService {
+    private static final TypeReference<LinkedHashMap<String, Object>> FIELDS_TYPE = new TypeReference<>() {
+    };
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private TaskRevisionRepository taskRevisionRepository;
+
+    @Autowired
+    private ArchivedTaskRevisionRepository archivedTaskRevisionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Pages through a task's timeline, newest revision first
+     */
+    public TaskHistoryResponse getHistory(Long taskId, int page, int size) {
+        try {
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+            // Fetch one extra row to learn whether another page exists
+            List<TaskRevision> revisions = taskRevisionRepository.findByTaskIdOrderByVersionDesc(
+                    taskId, PageRequest.of(Math.max(page, 0), pageSize + 1));
+
+            boolean hasMore = revisions.size() > pageSize;
+            List<TaskRevisionResponse> revisionResponses = revisions.stream()
+                    .limit(pageSize)
+                    .map(this::convertToRevisionResponse)
+                    .collect(Collectors.toList());
+
+            return new TaskHistoryResponse("Task history retrieved successfully", revisionResponses, page, hasMore, true);
+        } catch (Exception e) {
+            return new TaskHistoryResponse("Failed to retrieve task history: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Pages through the timeline of a task that TaskArchiver has moved out, newest first
+     */
+    public TaskHistoryResponse getArchivedHistory(Long taskId, int page, int size) {
+        try {
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+            List<ArchivedTaskRevision> revisions = archivedTaskRevisionRepository.findByTaskIdOrderByVersionDesc(
+                    taskId, PageRequest.of(Math.max(page, 0), pageSize + 1));
+
+            boolean hasMore = revisions.size() > pageSize;
+            List<TaskRevisionResponse> revisionResponses = revisions.stream()
+                    .limit(pageSize)
+                    .map(revision -> convertToRevisionResponse(revision.getVersion(), revision.getType(),
+                            revision.getFields(), revision.getChangedBy(), revision.getChangedAt()))
+                    .collect(Collectors.toList());
+
+            return new TaskHistoryResponse("Archived task history retrieved successfully", revisionResponses, page, hasMore, true);
+        } catch (Exception e) {
+            return new TaskHistoryResponse("Failed to retrieve archived task history: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Rebuilds the task as it was at the given version from the nearest snapshot below it
+     * plus the deltas recorded since
+     */
+    public TaskVersionResponse getVersion(Long taskId, Long version) {
+        try {
+            Optional<TaskRevision> snapshot = taskRevisionRepository
+                    .findFirstByTaskIdAndTypeAndVersionLessThanEqualOrderByVersionDesc(taskId, TaskRevisionType.SNAPSHOT, version);
+            if (snapshot.isEmpty()) {
+                return new TaskVersionResponse("No history recorded for this version", false);
+            }
+
+            Map<String, Object> fields = readFields(snapshot.get());
+            if (snapshot.get().getVersion() < version) {
+                List<TaskRevision> deltas = taskRevisionRepository.findByTaskIdAndVersionBetweenOrderByVersionAsc(
+                        taskId, snapshot.get().getVersion() + 1, version);
+                for (TaskRevision delta : deltas) {
+                    fields.putAll(readFields(delta));
+                }
+            }
+
+            return new TaskVersionResponse("Task version rebuilt successfully", taskId, version, fields, true);
+        } catch (Exception e) {
+            return new TaskVersionResponse("Failed to rebuild task version: " + e.getMessage(), false);
+        }
+    }
+
+    private Map<String, Object> readFields(TaskRevision revision) throws Exception {
+        return readFields(revision.getFields());
+    }
+
+    private Map<String, Object> readFields(String fields) throws Exception {
+        return objectMapper.readValue(fields, FIELDS_TYPE);
+    }
+
+    private TaskRevisionResponse convertToRevisionResponse(TaskRevision revision) {
+        return convertToRevisionResponse(revision.getVersion(), revision.getType(), revision.getFields(),
+                revision.getChangedBy(), revision.getChangedAt());
+    }
+
+    private TaskRevisionResponse convertToRevisionResponse(Long version, TaskRevisionType type, String fields,
+                                                           Long changedBy, LocalDateTime changedAt) {
+        TaskRevisionResponse response = new TaskRevisionResponse();
+        response.setVersion(version);
+        response.setType(type);
+        response.setChangedBy(changedBy);
+        response.setChangedAt(changedAt);
+
+        try {
+            response.setFields(readFields(fields));
+        } catch (Exception e) {
+            response.setFields(Map.of());
+        }
+
+        if (changedBy != null) {
+            userRepository.findById(changedBy)
+                    .ifPresent(user -> response.setChangedByUsername(user.getUsername()));
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,90 @@
+package org.psk.demo.services;
+
+import org.psk.demo.entity.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rewrites the rank keys of a board column as consecutive integer keys, keeping the
+ * column's order. Appends stay short on their own, but repeated moves into the same
+ * gap add fraction digits, so the write paths request a rebalance once a key grows past
+ * app.task-rank.max-length, and the requests are drained in the background. Columns
+ * holding tasks without a rank (bulk imports, or rows from before ranks existed) are
+ * rebalanced when an import or a move runs into them, which places those tasks after
+ * the ranked ones by deadline; db/manual/rank-task-columns.sql does the same for every
+ * column at once. A rebalance moves every rewritten task to a new change sequence
+ * step so delta sync picks up the new keys; it does not bump versions or write outbox
+ * events.
+ */
+@Component
+public class TaskRankRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRankRebalancer.class);
+
+    private static final String WRITE_RANK = "UPDATE tasks SET rank = ?, change_seq = ? WHERE group_id = ? AND id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    private final Set<Column> requested = ConcurrentHashMap.newKeySet();
+
+    private record Column(Long groupId, TaskStatus status) {
+    }
+
+    public void request(Long groupId, TaskStatus status) {
+        requested.add(new Column(groupId, status));
+    }
+
+    @Scheduled(fixedDelayString = "${app.task-rank.rebalance-interval-ms:5000}")
+    public void rebalanceRequested() {
+        for (Column column : new ArrayList<>(requested)) {
+            requested.remove(column);
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebalance(
+                        column.groupId(), column.status(), changeTracker.nextChangeSeq(column.groupId())));
+            } catch (IllegalStateException e) {
+                // The group is gone or being purged, so there is nothing left to rebalance
+            } catch (RuntimeException e) {
+                // Keys stay valid, only long, until the retry on the next run
+                log.warn("Could not rebalance the {} column of group {}; retrying on the next run",
+                        column.status(), column.groupId(), e);
+                requested.add(column);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the column in the caller's transaction, which must already hold the
+     * group's change sequence step {@code changeSeq}.
+     */
+    void rebalance(Long groupId, TaskStatus status, long changeSeq) {
+        List<Long> taskIds = jdbcTemplate.queryForList("""
+                SELECT id FROM tasks WHERE group_id = ? AND status = ?
+                ORDER BY rank ASC NULLS LAST, deadline, id""", Long.class, groupId, status.name());
+
+        List<String> ranks = RankKeys.sequential(taskIds.size());
+        List<Object[]> rows = new ArrayList<>(taskIds.size());
+        for (int i = 0; i < taskIds.size(); i++) {
+            rows.add(new Object[]{ranks.get(i), changeSeq, groupId, taskIds.get(i)});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(WRITE_RANK, rows);
+        }
+    }
+}
@@ -2,32 +2,130 @@ package org.psk.demo.services;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.psk.demo.dto.request.MoveTaskRequest;
 import org.psk.demo.dto.request.TaskRequest;
 import org.psk.demo.dto.request.UpdateTaskRequest;
 import org.psk.demo.dto.response.AuthenticationResponse;
+import org.psk.demo.dto.response.SparseTaskListResponse;
 import org.psk.demo.dto.response.TaskListResponse;
+import org.psk.demo.dto.response.TaskPageResponse;
 import org.psk.demo.dto.response.TaskResponse;
+import org.psk.demo.entity.ChangeEntityType;
+import org.psk.demo.entity.OutboxEventType;
 import org.psk.demo.entity.Task;
 import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.entity.User;
+import org.psk.demo.repository.SparseFieldRepository;
 import org.psk.demo.repository.TaskRepository;
+import org.psk.demo.repository.TaskSpecifications;
 import org.psk.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Fields of TaskResponse that can be requested with ?fields=, and the columns behind them
+    private static final SparseFieldset TASK_FIELDS = SparseFieldset.builder()
+            .field("id", "id")
+            .field("version", "version")
+            .field("title", "title")
+            .field("description", "description")
+            .field("deadline", "deadline")
+            .field("status", "status")
+            .field("groupId", "groupId")
+            .field("assignedUserId", "userId")
+            .field("assignedUsername", "userId")
+            .field("createdBy", "createdBy")
+            .field("createdByUsername", "createdBy")
+            .field("createdAt", "createdAt")
+            .field("updatedAt", "updatedAt")
+            .field("rank", "rank")
+            .field("parentId", "parentId")
+            .build();
+
+    private static final String LAST_RANK = "SELECT max(rank) FROM tasks WHERE group_id = ? AND status = ?";
+
+    private static final String RANK_OF = "SELECT rank FROM tasks WHERE group_id = ? AND status = ? AND id = ?";
+
+    // The first key below a slot in a column, skipping the task being moved
+    private static final String FIRST_RANK = """
+            SELECT rank FROM tasks WHERE group_id = ? AND status = ? AND id <> ?
+            ORDER BY rank LIMIT 1""";
+
+    private static final String NEXT_RANK = """
+            SELECT rank FROM tasks WHERE group_id = ? AND status = ? AND id <> ? AND rank > ?
+            ORDER BY rank LIMIT 1""";
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GroupChangeTracker changeTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GroupStatsService groupStatsService;
+
+    @Autowired
+    private GroupFlowService groupFlowService;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private TaskHistoryRecorder historyRecorder;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private JsonListStreamer jsonListStreamer;
+
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskRankRebalancer rankRebalancer;
+
+    @Autowired
+    private TaskDependencyService dependencyService;
+
+    @Autowired
+    private TaskHierarchyService hierarchyService;
+
+    @Value("${app.task-rank.max-length:32}")
+    private int maxRankLength;
+
     public AuthenticationResponse createTask(TaskRequest taskRequest, Long userId) {
         try{
             if(!userRepository.existsById(userId)) {
@@ -49,8 +147,10 @@ public class TaskService {
             task.setGroupId(taskRequest.getGroupId());
             task.setUserId(taskRequest.getUserId());
             task.setCreatedBy(userId);
+            task.setParentId(taskRequest.getParentId());
 
-            Task savedTask = taskRepository.save(task);
+            Task savedTask = saveWithChangeSeq(task, null, OutboxEventType.TASK_CREATED);
+            afterTaskWrite(savedTask, null, userId);
             return new AuthenticationResponse("Task created successfully!", savedTask.getTitle(), savedTask.getId(), true);
         } catch (Exception e) {
             return new AuthenticationResponse("Could not create task! " + e.getMessage(), null, null, false);
@@ -65,6 +165,8 @@ public class TaskService {
             }
 
             Task task = optionalTask.get();
+            Map<String, Object> previous = TaskHistoryRecorder.fieldsOf(task);
+            TaskStatus previousStatus = task.getStatus();
 
             if (request.getVersion() != null && !request.getVersion().equals(task.getVersion())) {
                 return new OptimisticLockResponse(
@@ -97,7 +199,8 @@ public class TaskService {
                 task.setUserId(request.getAssignedUserId());
             }
 
-            Task savedTask = taskRepository.save(task);
+            Task savedTask = saveWithChangeSeq(task, previousStatus, OutboxEventType.TASK_UPDATED);
+            afterTaskWrite(savedTask, previous, userId);
             return new AuthenticationResponse("Task updated successfully", null, taskId, true);
 
         } catch (OptimisticLockingFailureException e) {
@@ -124,7 +227,17 @@ public class TaskService {
                 return new AuthenticationResponse("Task not found", null, null, false);
             }
 
-            taskRepository.deleteById(taskId);
+            Task task = optionalTask.get();
+            transactionTemplate.executeWithoutResult(status -> {
+                taskRepository.deleteById(taskId);
+                changeTracker.recordDeletion(task.getGroupId(), ChangeEntityType.TASK, taskId);
+                dependencyService.taskDeleted(task.getGroupId(), taskId);
+                hierarchyService.taskDeleted(task, changeTracker.currentChangeSeq(task.getGroupId()));
+                groupStatsService.taskStatusChanged(task.getGroupId(), task.getStatus(), null);
+                groupFlowService.taskStatusChanged(task.getGroupId(), task.getStatus(), null);
+                outboxService.recordTask(OutboxEventType.TASK_DELETED, task);
+            });
+            TransactionHooks.afterCommit(() -> deadlineScheduler.untrack(taskId));
             return new AuthenticationResponse("Task deleted successfully", null, taskId, true);
 
         } catch (Exception e) {
@@ -132,6 +245,43 @@ public class TaskService {
         }
     }
 
+    /**
+     * Places the task directly below {@code afterTaskId} in its status column, or at the
+     * top. Only the moved task's row is written: its new rank key is chosen between the
+     * keys of its new neighbours.
+     */
+    public AuthenticationResponse moveTask(Long taskId, MoveTaskRequest request, Long userId) {
+        try {
+            Optional<Long> groupId = taskRepository.findGroupIdById(taskId);
+            if (groupId.isEmpty()) {
+                return new AuthenticationResponse("Task not found", null, null, false);
+            }
+
+            if (taskId.equals(request.getAfterTaskId())) {
+                return new AuthenticationResponse("Task cannot be moved below itself", null, null, false);
+            }
+
+            Task movedTask = transactionTemplate.execute(status -> {
+                long changeSeq = changeTracker.nextChangeSeq(groupId.get());
+                String rank = rankBelow(groupId.get(), taskId, request.getAfterTaskId(), changeSeq);
+                // A move is a new version of the task, like any other edit
+                jdbcTemplate.update("""
+                        UPDATE tasks SET rank = ?, change_seq = ?, updated_at = ?, version = version + 1
+                        WHERE group_id = ? AND id = ?""",
+                        rank, changeSeq, LocalDateTime.now(), groupId.get(), taskId);
+
+                Task task = taskRepository.findById(taskId).orElseThrow();
+                outboxService.recordTask(OutboxEventType.TASK_UPDATED, task);
+                return task;
+            });
+            rebalanceIfLong(movedTask);
+
+            return new AuthenticationResponse("Task moved successfully", null, taskId, true);
+        } catch (Exception e) {
+            return new AuthenticationResponse("Failed to move task: " + e.getMessage(), null, null, false);
+        }
+    }
+
     @Setter
     @Getter
     public static class OptimisticLockResponse extends AuthenticationResponse {
@@ -150,6 +300,42 @@ public class TaskService {
         return optionalTask.map(this::convertToTaskResponse).orElse(null);
     }
 
+    /**
+     * Returns tasks changed in the (since, until] window of the group's change sequence
+     */
+    public List<TaskResponse> getTasksChangedBetween(Long groupId, long since, long until) {
+        List<Task> tasks = since > 0
+                ? taskRepository.findChangesBetween(groupId, since, until)
+                : taskRepository.findByGroupIdOrderByDeadlineAsc(groupId);
+        return tasks.stream()
+                .map(this::convertToTaskResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The task followed by all of its subtasks at any depth, nearest levels first.
+     */
+    public TaskListResponse getSubtree(Long taskId) {
+        try {
+            Optional<Task> root = taskRepository.findById(taskId);
+            if (root.isEmpty()) {
+                return new TaskListResponse("Task not found", null, 0, false);
+            }
+
+            List<TaskResponse> taskResponses = new ArrayList<>();
+            taskResponses.add(convertToTaskResponse(root.get()));
+            taskRepository.findDescendants(taskId).forEach(task -> taskResponses.add(convertToTaskResponse(task)));
+
+            return new TaskListResponse("Tasks retrieved successfully", taskResponses, taskResponses.size(), true);
+        } catch (Exception e) {
+            return new TaskListResponse("Failed to retrieve tasks: " + e.getMessage(), null, 0, false);
+        }
+    }
+
+    public Long findGroupIdForTask(Long taskId) {
+        return taskRepository.findGroupIdById(taskId).orElse(null);
+    }
+
     public TaskListResponse getTasksByGroup(Long groupId) {
         try {
             List<Task> tasks = taskRepository.findByGroupIdOrderByDeadlineAsc(groupId);
@@ -163,6 +349,104 @@ public class TaskService {
         }
     }
 
+    /**
+     * Lists the group's tasks with only the requested fields. Only the columns those
+     * fields need are selected, and usernames are looked up in one query only if asked for.
+     */
+    public SparseTaskListResponse getTasksByGroup(Long groupId, TaskStatus status, String fields) {
+        try {
+            Set<String> requested = TASK_FIELDS.parse(fields);
+
+            Specification<Task> spec = Specification.where(TaskSpecifications.inGroup(groupId))
+                    .and(TaskSpecifications.hasStatus(status));
+            // A single column is listed in board order
+            String[] orderBy = status != null ? new String[]{"rank", "id"} : new String[]{"deadline"};
+            List<Map<String, Object>> rows = sparseFieldRepository.findAll(
+                    Task.class, TASK_FIELDS.attributesFor(requested), spec, orderBy);
+
+            Set<Long> userIds = new HashSet<>();
+            for (Map<String, Object> row : rows) {
+                if (requested.contains("assignedUsername") && row.get("userId") != null) {
+                    userIds.add((Long) row.get("userId"));
+                }
+                if (requested.contains("createdByUsername")) {
+                    userIds.add((Long) row.get("createdBy"));
+                }
+            }
+            Map<Long, String> usernames = findUsernames(userIds);
+
+            List<Map<String, Object>> tasks = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> task = new LinkedHashMap<>();
+                for (String field : requested) {
+                    task.put(field, switch (field) {
+                        case "assignedUserId" -> row.get("userId");
+                        case "assignedUsername" -> usernames.get(row.get("userId"));
+                        case "createdByUsername" -> usernames.get(row.get("createdBy"));
+                        default -> row.get(field);
+                    });
+                }
+                tasks.add(task);
+            }
+
+            return new SparseTaskListResponse("Tasks retrieved successfully", tasks, tasks.size(), true);
+        } catch (Exception e) {
+            return new SparseTaskListResponse("Failed to retrieve tasks: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Streams the group's tasks to {@code out} in the TaskListResponse shape without
+     * holding them in memory
+     */
+    @Transactional(readOnly = true)
+    public void writeTasksByGroup(Long groupId, OutputStream out) throws IOException {
+        jsonListStreamer.write(out, "Tasks retrieved successfully", "tasks", "totalTasks",
+                taskRepository.streamByGroupId(groupId), this::convertToTaskResponse);
+    }
+
+    /**
+     * Lists tasks assigned to the user across all groups in one query, ordered by deadline
+     * and paged with a (deadline, id) keyset cursor.
+     */
+    public TaskPageResponse getMyTasks(Long userId, TaskStatus status, Long groupId,
+                                       LocalDateTime deadlineFrom, LocalDateTime deadlineTo,
+                                       LocalDateTime afterDeadline, Long afterId, int limit) {
+        try {
+            int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+            Specification<Task> spec = Specification.where(TaskSpecifications.assignedTo(userId))
+                    .and(TaskSpecifications.inLiveGroup())
+                    .and(TaskSpecifications.hasStatus(status))
+                    .and(TaskSpecifications.inGroup(groupId))
+                    .and(TaskSpecifications.dueBetween(deadlineFrom, deadlineTo))
+                    .and(TaskSpecifications.after(afterDeadline, afterId));
+
+            // Fetch one extra row to learn whether another page exists
+            List<Task> tasks = taskRepository.findBy(spec, query -> query
+                    .sortBy(Sort.by("deadline", "id"))
+                    .limit(pageSize + 1)
+                    .all());
+
+            boolean hasMore = tasks.size() > pageSize;
+            if (hasMore) {
+                tasks = tasks.subList(0, pageSize);
+            }
+
+            List<TaskResponse> taskResponses = tasks.stream()
+                    .map(this::convertToTaskResponse)
+                    .collect(Collectors.toList());
+
+            Task last = hasMore ? tasks.get(tasks.size() - 1) : null;
+            return new TaskPageResponse("Tasks retrieved successfully", taskResponses, hasMore,
+                    last != null ? last.getDeadline() : null,
+                    last != null ? last.getId() : null,
+                    true);
+        } catch (Exception e) {
+            return new TaskPageResponse("Failed to retrieve tasks: " + e.getMessage(), false);
+        }
+    }
+
     public AuthenticationResponse assignTask(Long taskId, Long assignedUserId, Long userId) {
         try {
             Optional<Task> optionalTask = taskRepository.findById(taskId);
@@ -175,8 +459,10 @@ public class TaskService {
             }
 
             Task task = optionalTask.get();
+            Map<String, Object> previous = TaskHistoryRecorder.fieldsOf(task);
             task.setUserId(assignedUserId);
-            taskRepository.save(task);
+            Task savedTask = saveWithChangeSeq(task, task.getStatus(), OutboxEventType.TASK_UPDATED);
+            afterTaskWrite(savedTask, previous, userId);
 
             return new AuthenticationResponse("Task assigned successfully", null, taskId, true);
         } catch (Exception e) {
@@ -184,9 +470,12 @@ public class TaskService {
         }
     }
 
+    /**
+     * Lists one board column in its manual order.
+     */
     public TaskListResponse getTasksByGroupAndStatus(Long groupId, TaskStatus status) {
         try {
-            List<Task> tasks = taskRepository.findByGroupIdAndStatus(groupId, status);
+            List<Task> tasks = taskRepository.findColumnByRank(groupId, status);
             List<TaskResponse> taskResponses = tasks.stream()
                     .map(this::convertToTaskResponse)
                     .collect(Collectors.toList());
@@ -198,6 +487,100 @@ public class TaskService {
     }
 
 
+    // Stamps the task with the next group change sequence and writes its outbox event,
+    // group counters and daily flow in the same transaction as the task itself; previousStatus is null
+    // for a new task. A task entering a status column is appended to the end of it
+    private Task saveWithChangeSeq(Task task, TaskStatus previousStatus, OutboxEventType eventType) {
+        Task saved = transactionTemplate.execute(status -> {
+            task.setChangeSeq(changeTracker.nextChangeSeq(task.getGroupId()));
+            if (task.getStatus() != previousStatus) {
+                appendToColumn(task);
+            }
+            Task savedTask = taskRepository.saveAndFlush(task);
+            hierarchyService.taskSaved(savedTask, previousStatus);
+            groupStatsService.taskStatusChanged(savedTask.getGroupId(), previousStatus, savedTask.getStatus());
+            groupFlowService.taskStatusChanged(savedTask.getGroupId(), previousStatus, savedTask.getStatus());
+            outboxService.recordTask(eventType, savedTask);
+            return savedTask;
+        });
+        rebalanceIfLong(saved);
+        return saved;
+    }
+
+    // Rank is not updatable through the entity, so an existing task's key is written directly
+    private void appendToColumn(Task task) {
+        String last = jdbcTemplate.queryForObject(LAST_RANK, String.class, task.getGroupId(), task.getStatus().name());
+        if (last != null && !RankKeys.isValid(last)) {
+            // A key in an older format; rewrite the column once, then append
+            rankRebalancer.rebalance(task.getGroupId(), task.getStatus(), task.getChangeSeq());
+            last = jdbcTemplate.queryForObject(LAST_RANK, String.class, task.getGroupId(), task.getStatus().name());
+        }
+        String rank = RankKeys.between(last, null);
+        if (task.getId() != null) {
+            jdbcTemplate.update("UPDATE tasks SET rank = ? WHERE group_id = ? AND id = ?",
+                    rank, task.getGroupId(), task.getId());
+        }
+        task.setRank(rank);
+    }
+
+    // Key for the slot below afterTaskId, or the top, of the task's column. Runs after the
+    // group's change sequence is taken, which serializes rank writes within the group
+    private String rankBelow(Long groupId, Long taskId, Long afterTaskId, long changeSeq) {
+        String column = jdbcTemplate.queryForObject(
+                "SELECT status FROM tasks WHERE group_id = ? AND id = ?", String.class, groupId, taskId);
+
+        // Unranked tasks have no place to move between until the column is rebalanced
+        Boolean unranked = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM tasks WHERE group_id = ? AND status = ? AND rank IS NULL)",
+                Boolean.class, groupId, column);
+        if (Boolean.TRUE.equals(unranked)) {
+            rankRebalancer.rebalance(groupId, TaskStatus.valueOf(column), changeSeq);
+        }
+
+        String lower = null;
+        if (afterTaskId != null) {
+            List<String> after = jdbcTemplate.queryForList(RANK_OF, String.class, groupId, column, afterTaskId);
+            if (after.isEmpty()) {
+                throw new IllegalArgumentException("Task " + afterTaskId + " is not in the same column");
+            }
+            lower = after.get(0);
+        }
+
+        List<String> next = lower == null
+                ? jdbcTemplate.queryForList(FIRST_RANK, String.class, groupId, column, taskId)
+                : jdbcTemplate.queryForList(NEXT_RANK, String.class, groupId, column, taskId, lower);
+        String upper = next.isEmpty() ? null : next.get(0);
+
+        // Neighbours with keys in an older format: rewrite the column once and look again
+        if ((lower != null && !RankKeys.isValid(lower)) || (upper != null && !RankKeys.isValid(upper))) {
+            rankRebalancer.rebalance(groupId, TaskStatus.valueOf(column), changeSeq);
+            return rankBelow(groupId, taskId, afterTaskId, changeSeq);
+        }
+        return RankKeys.between(lower, upper);
+    }
+
+    private void rebalanceIfLong(Task task) {
+        if (task.getRank() != null && task.getRank().length() > maxRankLength) {
+            rankRebalancer.request(task.getGroupId(), task.getStatus());
+        }
+    }
+
+    // Updates in-memory timers and queues history once the write has committed
+    private void afterTaskWrite(Task savedTask, Map<String, Object> previous, Long userId) {
+        TransactionHooks.afterCommit(() -> {
+            deadlineScheduler.track(savedTask);
+            historyRecorder.record(savedTask, previous, userId);
+        });
+    }
+
+    private Map<Long, String> findUsernames(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
     private TaskResponse convertToTaskResponse(Task task) {
         TaskResponse response = new TaskResponse();
         response.setId(task.getId());
@@ -211,6 +594,8 @@ public class TaskService {
         response.setCreatedBy(task.getCreatedBy());
         response.setCreatedAt(task.getCreatedAt());
         response.setUpdatedAt(task.getUpdatedAt());
+        response.setRank(task.getRank());
+        response.setParentId(task.getParentId());
 
         if (task.getUserId() != null) {
             userRepository.findById(task.getUserId())
@@ -0,0 +1,30 @@
+-- Gives comments written before threads existed a top-level thread path of their
+-- own, the same 16 hex digit key CommentService builds from a comment's id. Until it
+-- has run those comments are left out of threaded listings. Run by hand, once,
+-- outside a transaction block:
+--
+--   psql -v ON_ERROR_STOP=1 -f backfill-comment-thread-paths.sql
+--
+-- Walks the primary key in ranges of 50000 ids, committing after each, so no
+-- statement scans the whole table or holds its row locks for long. Safe to run again.
+
+DO $$
+DECLARE
+    batch CONSTANT bigint := 50000;
+    lo bigint;
+    hi bigint;
+BEGIN
+    SELECT min(id), max(id) INTO lo, hi FROM comments;
+    IF lo IS NULL THEN
+        RETURN;
+    END IF;
+
+    lo := lo - 1;
+    WHILE lo < hi LOOP
+        UPDATE comments SET thread_path = lpad(to_hex(id), 16, '0')
+        WHERE id > lo AND id <= lo + batch AND thread_path IS NULL;
+
+        lo := lo + batch;
+        COMMIT;
+    END LOOP;
+END $$;
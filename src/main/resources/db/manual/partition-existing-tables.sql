@@ -0,0 +1,131 @@
+-- Converts populated tasks and comments tables to the 16-way HASH (group_id) layout of
+-- db/partition-by-group.sql while the application keeps running. Run by hand, once,
+-- outside a transaction block:
+--
+--   psql -v ON_ERROR_STOP=1 -f partition-existing-tables.sql
+--
+-- 1. Creates the partitioned copy, with its primary key and indexes, and a trigger
+--    that mirrors every insert, update and delete on the old table into it.
+-- 2. Copies the rows that existed before the trigger in id ranges of copy_batch,
+--    committing after each range. Copied rows are locked FOR SHARE until their range
+--    commits, so a concurrent update waits and then replaces the copied version.
+-- 3. Swaps the tables. Only this step takes an ACCESS EXCLUSIVE lock, and it does no
+--    copying: drop, renames and the id sequence.
+--
+-- Steps 1 and 3 skip tables they have already done and step 2 ignores rows already
+-- copied, so an interrupted run can simply be started again.
+-- The index list mirrors the indexes db/partition-by-group.sql creates.
+
+CREATE OR REPLACE FUNCTION partition_by_group_mirror() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        EXECUTE format('DELETE FROM %I WHERE id = $1 AND group_id = $2', TG_TABLE_NAME || '_partitioned')
+            USING OLD.id, OLD.group_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        EXECUTE format('INSERT INTO %I SELECT ($1).* ON CONFLICT DO NOTHING', TG_TABLE_NAME || '_partitioned')
+            USING NEW;
+    END IF;
+    RETURN NULL;
+END $$;
+
+-- 1. Partitioned copy and mirror trigger
+DO $$
+DECLARE
+    partition_count CONSTANT int := 16;
+    tbl text;
+    idx record;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['tasks', 'comments'] LOOP
+        CONTINUE WHEN NOT EXISTS (SELECT 1 FROM pg_class
+                                  WHERE relname = tbl AND relkind = 'r' AND relnamespace = 'public'::regnamespace);
+        CONTINUE WHEN to_regclass(tbl || '_partitioned') IS NOT NULL;
+
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY HASH (group_id)',
+                       tbl || '_partitioned', tbl);
+        FOR i IN 0 .. partition_count - 1 LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                           tbl || '_p' || i, tbl || '_partitioned', partition_count, i);
+        END LOOP;
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY (id, group_id)',
+                       tbl || '_partitioned', tbl || '_partitioned_pkey');
+
+        -- Built while the copy is empty; renamed to their final names at the swap
+        FOR idx IN SELECT * FROM (VALUES
+                ('tasks', 'idx_tasks_group_change_seq', 'group_id, change_seq', NULL),
+                ('tasks', 'idx_tasks_open_deadline', 'deadline, id', 'status <> ''DONE'''),
+                ('tasks', 'idx_tasks_user_status_deadline', 'user_id, status, deadline', NULL),
+                ('tasks', 'idx_tasks_status_updated_at', 'status, updated_at', NULL),
+                ('tasks', 'idx_tasks_group_status_rank', 'group_id, status, rank', NULL),
+                ('comments', 'idx_comments_group_change_seq', 'group_id, change_seq', NULL),
+                ('comments', 'idx_comments_group_thread_path', 'group_id, thread_path', NULL),
+                ('comments', 'idx_comments_group_depth_thread_path', 'group_id, depth, thread_path', NULL)
+            ) AS i(table_name, index_name, columns, predicate) WHERE table_name = tbl LOOP
+            EXECUTE format('CREATE INDEX %I ON %I (%s)%s', idx.index_name || '_partitioned', tbl || '_partitioned',
+                           idx.columns, COALESCE(' WHERE ' || idx.predicate, ''));
+        END LOOP;
+
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT OR UPDATE OR DELETE ON %I FOR EACH ROW EXECUTE FUNCTION partition_by_group_mirror()',
+                       tbl || '_partition_mirror', tbl);
+    END LOOP;
+END $$;
+
+-- 2. Backfill in committed id ranges
+DO $$
+DECLARE
+    copy_batch CONSTANT bigint := 50000;
+    tbl text;
+    from_id bigint;
+    max_id bigint;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['tasks', 'comments'] LOOP
+        CONTINUE WHEN NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = tbl || '_partition_mirror');
+
+        -- Rows above max_id arrive through the trigger; a restart copies from the
+        -- beginning again, skipping what is already there
+        EXECUTE format('SELECT COALESCE(max(id), 0) FROM %I', tbl) INTO max_id;
+        from_id := 0;
+
+        WHILE from_id < max_id LOOP
+            EXECUTE format('WITH batch AS (SELECT * FROM %I WHERE id > $1 AND id <= $2 FOR SHARE) '
+                           'INSERT INTO %I SELECT * FROM batch ON CONFLICT DO NOTHING', tbl, tbl || '_partitioned')
+                USING from_id, from_id + copy_batch;
+            COMMIT;
+            from_id := from_id + copy_batch;
+            RAISE NOTICE '%: copied up to id %', tbl, LEAST(from_id, max_id);
+        END LOOP;
+    END LOOP;
+END $$;
+
+-- 3. Swap, under a short exclusive lock
+DO $$
+DECLARE
+    tbl text;
+    idx record;
+    next_id bigint;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['tasks', 'comments'] LOOP
+        CONTINUE WHEN to_regclass(tbl || '_partitioned') IS NULL;
+
+        EXECUTE format('LOCK TABLE %I, %I IN ACCESS EXCLUSIVE MODE', tbl, tbl || '_partitioned');
+        next_id := COALESCE(nextval(pg_get_serial_sequence(tbl, 'id')), 1);
+
+        EXECUTE format('DROP TABLE %I', tbl);
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', tbl || '_partitioned', tbl);
+        EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I', tbl, tbl || '_partitioned_pkey', tbl || '_pkey');
+        FOR idx IN SELECT indexname FROM pg_indexes
+                   WHERE tablename = tbl AND indexname LIKE 'idx\_%\_partitioned' LOOP
+            EXECUTE format('ALTER INDEX %I RENAME TO %I', idx.indexname,
+                           left(idx.indexname, length(idx.indexname) - length('_partitioned')));
+        END LOOP;
+
+        EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', tbl || '_id_seq', tbl);
+        PERFORM setval(tbl || '_id_seq', next_id, false);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, tbl || '_id_seq');
+
+        -- The trigger went with the old table
+        COMMIT;
+    END LOOP;
+END $$;
+
+DROP FUNCTION partition_by_group_mirror();
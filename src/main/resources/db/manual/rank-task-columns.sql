@@ -0,0 +1,63 @@
+-- Gives every board column a valid set of rank keys (see RankKeys): columns holding
+-- tasks without a rank, from before ranks existed, or keys in an older format are
+-- rewritten as consecutive integer keys "a0", "a1", ... in their current order, with
+-- unranked tasks after the ranked ones by deadline. Run by hand, once, outside a
+-- transaction block:
+--
+--   psql -v ON_ERROR_STOP=1 -f rank-task-columns.sql
+--
+-- Works one group at a time, committing after each, and moves the rewritten tasks to
+-- a new step of the group's change sequence so delta sync picks up the new keys.
+
+CREATE FUNCTION pg_temp.rank_key(n bigint) RETURNS text LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    digits CONSTANT text := '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz';
+    width int := 1;
+    block bigint := 62;
+    key text := '';
+BEGIN
+    -- "a" + 1 digit covers 0..61, "b" + 2 digits the next 62^2, and so on
+    WHILE n >= block LOOP
+        n := n - block;
+        width := width + 1;
+        block := block * 62;
+    END LOOP;
+    FOR i IN 1 .. width LOOP
+        key := substr(digits, (n % 62)::int + 1, 1) || key;
+        n := n / 62;
+    END LOOP;
+    RETURN chr(ascii('a') + width - 1) || key;
+END $$;
+
+CREATE FUNCTION pg_temp.is_rank_key(key text) RETURNS boolean LANGUAGE sql IMMUTABLE AS $$
+    SELECT key ~ '^[a-zA-Z][0-9A-Za-z]*$'
+       AND key <> 'A' || repeat('0', 26)
+       AND length(key) >= CASE WHEN key ~ '^[a-z]' THEN ascii(key) - ascii('a') + 2 ELSE ascii('Z') - ascii(key) + 2 END
+       AND (length(key) = CASE WHEN key ~ '^[a-z]' THEN ascii(key) - ascii('a') + 2 ELSE ascii('Z') - ascii(key) + 2 END
+            OR right(key, 1) <> '0')
+$$;
+
+DO $$
+DECLARE
+    target record;
+    seq bigint;
+BEGIN
+    FOR target IN SELECT DISTINCT group_id FROM tasks
+                  WHERE rank IS NULL OR NOT pg_temp.is_rank_key(rank) LOOP
+        UPDATE groups SET change_seq = change_seq + 1 WHERE id = target.group_id RETURNING change_seq INTO seq;
+
+        WITH columns AS (
+            SELECT DISTINCT status FROM tasks
+            WHERE group_id = target.group_id AND (rank IS NULL OR NOT pg_temp.is_rank_key(rank))
+        ), ordered AS (
+            SELECT t.id, row_number() OVER (PARTITION BY t.status ORDER BY t.rank ASC NULLS LAST, t.deadline, t.id) - 1 AS n
+            FROM tasks t JOIN columns c ON c.status = t.status
+            WHERE t.group_id = target.group_id
+        )
+        UPDATE tasks t SET rank = pg_temp.rank_key(o.n), change_seq = COALESCE(seq, t.change_seq)
+        FROM ordered o
+        WHERE t.group_id = target.group_id AND t.id = o.id;
+
+        COMMIT;
+    END LOOP;
+END $$;
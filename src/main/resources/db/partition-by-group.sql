@@ -0,0 +1,67 @@
+-- Turns tasks and comments into tables hash-partitioned on group_id, so every
+-- group-scoped query touches one partition and its smaller indexes.
+--
+-- Runs on every startup after Hibernate's schema update. It only converts a table that
+-- is still a plain table and empty, which is a fresh database on its first start; the
+-- conversion is then instant. A table that already holds rows is left alone, since
+-- copying it here would block startup and lock the table for the whole copy; existing
+-- databases are converted out of band with db/manual/partition-existing-tables.sql.
+-- Partitioned tables cannot have a primary key without the partition column, so the
+-- key becomes (id, group_id); ids keep coming from a sequence owned by the column,
+-- since identity columns on partitioned tables need Postgres 17.
+--
+-- The index list below mirrors the @Index entries on Task and Comment, plus the partial
+-- index on open tasks' deadlines, which JPA annotations cannot declare.
+DO $$
+DECLARE
+    partition_count CONSTANT int := 16;
+    tbl text;
+    has_rows boolean;
+    next_id bigint;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['tasks', 'comments'] LOOP
+        IF EXISTS (SELECT 1 FROM pg_class
+                   WHERE relname = tbl AND relkind = 'r' AND relnamespace = 'public'::regnamespace) THEN
+            -- Check before locking, so a populated table is never locked here, and again
+            -- under the lock in case a row arrived in between
+            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', tbl) INTO has_rows;
+            IF NOT has_rows THEN
+                EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', tbl);
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', tbl) INTO has_rows;
+            END IF;
+            IF has_rows THEN
+                RAISE NOTICE '% already holds rows and stays unpartitioned; run db/manual/partition-existing-tables.sql', tbl;
+                CONTINUE;
+            END IF;
+
+            EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY HASH (group_id)',
+                           tbl || '_partitioned', tbl);
+            FOR i IN 0 .. partition_count - 1 LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                               tbl || '_p' || i, tbl || '_partitioned', partition_count, i);
+            END LOOP;
+
+            -- Carry the id sequence over, so ids of rows deleted earlier are not reused
+            next_id := COALESCE(nextval(pg_get_serial_sequence(tbl, 'id')), 1);
+
+            EXECUTE format('DROP TABLE %I', tbl);
+            EXECUTE format('ALTER TABLE %I RENAME TO %I', tbl || '_partitioned', tbl);
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY (id, group_id)', tbl, tbl || '_pkey');
+
+            EXECUTE format('CREATE SEQUENCE %I OWNED BY %I.id', tbl || '_id_seq', tbl);
+            PERFORM setval(tbl || '_id_seq', next_id, false);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, tbl || '_id_seq');
+        END IF;
+    END LOOP;
+
+    CREATE INDEX IF NOT EXISTS idx_tasks_group_change_seq ON tasks (group_id, change_seq);
+    -- DeadlineScheduler's keyset walk over open tasks; replaces the plain deadline index
+    DROP INDEX IF EXISTS idx_tasks_deadline;
+    CREATE INDEX IF NOT EXISTS idx_tasks_open_deadline ON tasks (deadline, id) WHERE status <> 'DONE';
+    CREATE INDEX IF NOT EXISTS idx_tasks_user_status_deadline ON tasks (user_id, status, deadline);
+    CREATE INDEX IF NOT EXISTS idx_tasks_status_updated_at ON tasks (status, updated_at);
+    CREATE INDEX IF NOT EXISTS idx_tasks_group_status_rank ON tasks (group_id, status, rank);
+    CREATE INDEX IF NOT EXISTS idx_comments_group_change_seq ON comments (group_id, change_seq);
+    CREATE INDEX IF NOT EXISTS idx_comments_group_thread_path ON comments (group_id, thread_path);
+    CREATE INDEX IF NOT EXISTS idx_comments_group_depth_thread_path ON comments (group_id, depth, thread_path);
+END $$;
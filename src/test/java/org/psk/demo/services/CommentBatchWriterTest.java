@@ -0,0 +1,223 @@
+package org.psk.demo.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.psk.demo.dto.request.CommentRequest;
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.psk.demo.entity.Comment;
+import org.psk.demo.entity.OutboxEventType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentBatchWriterTest {
+
+    // Users 1 to 3; user 1 created group 10 and user 2 joined it, user 3 created group 20
+    private static final Set<Long> USERS = Set.of(1L, 2L, 3L);
+    private static final Map<Long, Set<Long>> MEMBERS = Map.of(10L, Set.of(1L, 2L), 20L, Set.of(3L));
+
+    private final AtomicLong nextId = new AtomicLong(100);
+    private final Map<Long, Long> changeSeqs = new HashMap<>();
+    private final List<List<Object>> inserts = new CopyOnWriteArrayList<>();
+    private final Map<Long, Long> commentCounts = new HashMap<>();
+    private final List<Comment> published = new CopyOnWriteArrayList<>();
+    private final List<Comment> cached = new CopyOnWriteArrayList<>();
+    private volatile RuntimeException insertFailure;
+
+    private CommentBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new CommentBatchWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", new JdbcTemplate() {
+            // The access check, answered from USERS and MEMBERS
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                try {
+                    for (int i = 0; i < args.length; i += 2) {
+                        rch.processRow(accessRow((Long) args[i], (Long) args[i + 1]));
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            // Ids reserved from the comments sequence
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                List<T> ids = new ArrayList<>();
+                for (int i = 0; i < (Integer) args[0]; i++) {
+                    ids.add((T) Long.valueOf(nextId.getAndIncrement()));
+                }
+                return ids;
+            }
+
+            @Override
+            public int update(String sql, Object... args) {
+                if (insertFailure != null) {
+                    throw insertFailure;
+                }
+                inserts.add(List.of(args));
+                return args.length / 8;
+            }
+        });
+        ReflectionTestUtils.setField(writer, "transactionTemplate", new TransactionTemplate(new NoOpTransactionManager()));
+        ReflectionTestUtils.setField(writer, "changeTracker", new GroupChangeTracker() {
+            @Override
+            public long nextChangeSeq(Long groupId) {
+                return changeSeqs.merge(groupId, 1L, Long::sum);
+            }
+        });
+        ReflectionTestUtils.setField(writer, "groupStatsService", new GroupStatsService() {
+            @Override
+            public void adjustComments(Long groupId, long delta) {
+                commentCounts.merge(groupId, delta, Long::sum);
+            }
+        });
+        ReflectionTestUtils.setField(writer, "outboxService", new OutboxService() {
+            @Override
+            public void recordComments(OutboxEventType eventType, List<Comment> comments) {
+                published.addAll(comments);
+            }
+        });
+        ReflectionTestUtils.setField(writer, "recentCommentsCache", new RecentCommentsCache() {
+            @Override
+            public void commentSaved(Comment comment) {
+                cached.add(comment);
+            }
+        });
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(writer, "maxWaitMs", 5L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void queuedPostsAreWrittenInBatchesOfAtMostMaxBatchSize() throws Exception {
+        List<CompletableFuture<AuthenticationResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(writer.submit(10L, new CommentRequest("comment " + i, null), 1L));
+        }
+        writer.start();
+
+        List<Long> ids = new ArrayList<>();
+        for (CompletableFuture<AuthenticationResponse> result : results) {
+            AuthenticationResponse response = result.get(5, TimeUnit.SECONDS);
+            assertTrue(response.isSuccess(), response.getMessage());
+            ids.add(response.getUserId());
+        }
+
+        // Ids follow submission order, and each batch is one multi-row insert
+        assertEquals(List.of(100L, 101L, 102L, 103L, 104L), ids);
+        assertEquals(2, inserts.size());
+        assertEquals(3 * 8, inserts.get(0).size());
+        assertEquals(2 * 8, inserts.get(1).size());
+        // One change sequence step per batch for the group
+        assertEquals(Map.of(10L, 2L), changeSeqs);
+        assertEquals(Map.of(10L, 5L), commentCounts);
+        assertEquals(5, published.size());
+        assertEquals(5, cached.size());
+    }
+
+    @Test
+    void authorsWithoutAccessAreRejectedAndTheRestOfTheBatchIsWritten() throws Exception {
+        CompletableFuture<AuthenticationResponse> member = writer.submit(10L, new CommentRequest("member", null), 2L);
+        CompletableFuture<AuthenticationResponse> outsider = writer.submit(10L, new CommentRequest("outsider", null), 3L);
+        CompletableFuture<AuthenticationResponse> unknownUser = writer.submit(20L, new CommentRequest("unknown", null), 9L);
+        writer.start();
+
+        assertTrue(member.get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals("You must be a member of this group to comment!", outsider.get(5, TimeUnit.SECONDS).getMessage());
+        assertEquals("User not found!", unknownUser.get(5, TimeUnit.SECONDS).getMessage());
+
+        CompletableFuture<AuthenticationResponse> deletedGroup = writer.submit(30L, new CommentRequest("gone", null), 1L);
+        assertEquals("Group not found!", deletedGroup.get(5, TimeUnit.SECONDS).getMessage());
+
+        // Only the member's comment reached the table, the outbox and the cache
+        assertEquals(1, inserts.size());
+        assertEquals(8, inserts.get(0).size());
+        assertEquals(List.of("member"), published.stream().map(Comment::getContent).toList());
+        assertEquals(1, cached.size());
+        assertFalse(changeSeqs.containsKey(20L));
+        assertFalse(changeSeqs.containsKey(30L));
+    }
+
+    @Test
+    void failedInsertFailsEveryPostInTheBatchAndCachesNothing() throws Exception {
+        insertFailure = new DataIntegrityViolationException("duplicate key");
+        CompletableFuture<AuthenticationResponse> first = writer.submit(10L, new CommentRequest("a", null), 1L);
+        CompletableFuture<AuthenticationResponse> second = writer.submit(10L, new CommentRequest("b", null), 2L);
+        writer.start();
+
+        for (CompletableFuture<AuthenticationResponse> result : List.of(first, second)) {
+            AuthenticationResponse response = result.get(5, TimeUnit.SECONDS);
+            assertFalse(response.isSuccess());
+            assertEquals("Could not post comment! duplicate key", response.getMessage());
+        }
+        assertTrue(cached.isEmpty());
+
+        // The writer keeps going after a failed batch
+        insertFailure = null;
+        assertTrue(writer.submit(10L, new CommentRequest("c", null), 1L).get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(1, cached.size());
+    }
+
+    // One row of the access check for an author; group 30 exists only as deleted
+    private static ResultSet accessRow(Long groupId, Long userId) {
+        Map<String, Object> row = Map.of(
+                "group_id", groupId,
+                "user_id", userId,
+                "user_exists", USERS.contains(userId),
+                "group_exists", MEMBERS.containsKey(groupId),
+                "is_member", MEMBERS.getOrDefault(groupId, Set.of()).contains(userId));
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> row.get((String) args[0]));
+    }
+
+    // Enough of a transaction manager for commit hooks to run, and only on commit
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.psk.demo.services;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.psk.demo.dto.response.AuthenticationResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupWriteQueueTest {
+
+    private static final Long GROUP_ID = 1L;
+
+    private RowStore store;
+    private TransactionTemplate transactionTemplate;
+    private GroupWriteQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        store = new RowStore();
+        transactionTemplate = new TransactionTemplate(store);
+        queue = new GroupWriteQueue();
+        ReflectionTestUtils.setField(queue, "transactionManager", store);
+        ReflectionTestUtils.setField(queue, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(queue, "entityManager", Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EntityManager.class}, (proxy, method, args) -> null));
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "groupIds", Set.of());
+        ReflectionTestUtils.setField(queue, "maxBatchSize", 32);
+        ReflectionTestUtils.setField(queue, "idleTimeoutMs", 30_000L);
+        queue.init();
+    }
+
+    @Test
+    void rejectedCommandRollsBackAlone() throws Exception {
+        List<Object> results = runAsOneBatch(
+                () -> write("a", true),
+                () -> write("b", false),
+                () -> write("c", true));
+
+        assertTrue(((AuthenticationResponse) results.get(0)).isSuccess());
+        assertFalse(((AuthenticationResponse) results.get(1)).isSuccess());
+        assertTrue(((AuthenticationResponse) results.get(2)).isSuccess());
+        assertEquals(List.of("a", "c"), store.committedAfterFirst());
+        // The blocking command, then the whole batch at once
+        assertEquals(2, store.commits);
+    }
+
+    @Test
+    void failedSharedTransactionRunsEachCommandAlone() throws Exception {
+        List<Object> results = runAsOneBatch(
+                () -> write("a", true),
+                () -> transactionTemplate.execute(status -> {
+                    store.write("b");
+                    throw new IllegalStateException("boom");
+                }),
+                () -> write("c", true));
+
+        assertTrue(((AuthenticationResponse) results.get(0)).isSuccess());
+        assertInstanceOf(IllegalStateException.class, results.get(1));
+        assertTrue(((AuthenticationResponse) results.get(2)).isSuccess());
+        assertEquals(List.of("a", "c"), store.committedAfterFirst());
+    }
+
+    @Test
+    void errorReachesItsCallerAndTheWorkerKeepsRunning() throws Exception {
+        List<Object> results = runAsOneBatch(
+                () -> write("a", true),
+                () -> {
+                    throw new AssertionError("broken command");
+                });
+
+        assertInstanceOf(AssertionError.class, results.get(1));
+        assertEquals(List.of("a"), store.committedAfterFirst());
+
+        // Alone in its batch this time
+        assertThrows(AssertionError.class, () -> queue.execute(GROUP_ID, () -> {
+            throw new AssertionError("broken again");
+        }));
+        assertTrue(queue.execute(GROUP_ID, () -> write("d", true)).isSuccess());
+        assertTrue(store.committed.contains("d"));
+    }
+
+    // A command as the services write them: its own transaction, or part of the caller's
+    private AuthenticationResponse write(String row, boolean success) {
+        return transactionTemplate.execute(status -> {
+            store.write(row);
+            return new AuthenticationResponse(success ? "ok" : "rejected", null, null, success);
+        });
+    }
+
+    /*
+     * Holds the worker in a first command until every given command is queued behind
+     * it, so they are drained and run together. Returns each caller's result, or what
+     * it threw.
+     */
+    private List<Object> runAsOneBatch(Supplier<?>... commands) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> queue.execute(GROUP_ID, () -> {
+            write("first", true);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new AuthenticationResponse("ok", null, null, true);
+        }));
+        while (store.writes() == 0) {
+            Thread.onSpinWait();
+        }
+
+        List<Thread> callers = new ArrayList<>();
+        List<Object> results = new CopyOnWriteArrayList<>(new Object[commands.length]);
+        for (int i = 0; i < commands.length; i++) {
+            int index = i;
+            Thread caller = new Thread(() -> {
+                try {
+                    results.set(index, queue.execute(GROUP_ID, commands[index]));
+                } catch (Throwable e) {
+                    results.set(index, e);
+                }
+            });
+            caller.start();
+            callers.add(caller);
+            // Queued in order: each caller is parked in join() before the next starts
+            while (caller.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+        }
+
+        release.countDown();
+        first.get();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        return results;
+    }
+
+    /**
+     * A transaction manager over an in-memory list of rows, with savepoints, so the
+     * queue's REQUIRED and NESTED templates behave as they do against a database.
+     */
+    private static final class RowStore extends AbstractPlatformTransactionManager {
+
+        private final List<String> committed = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+        private volatile int writes;
+        private int commits;
+
+        RowStore() {
+            setNestedTransactionAllowed(true);
+        }
+
+        void write(String row) {
+            current.get().rows.add(row);
+            writes++;
+        }
+
+        int writes() {
+            return writes;
+        }
+
+        List<String> committedAfterFirst() {
+            return committed.stream().filter(row -> !row.equals("first")).toList();
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            Transaction transaction = current.get();
+            return transaction != null ? transaction : new Transaction();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transaction) transaction).active;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            Transaction begun = (Transaction) transaction;
+            begun.active = true;
+            current.set(begun);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed.addAll(((Transaction) status.getTransaction()).rows);
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            ((Transaction) status.getTransaction()).rows.clear();
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((Transaction) status.getTransaction()).rollbackOnly = true;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            current.remove();
+        }
+
+        private static final class Transaction implements SavepointManager {
+            private final List<String> rows = new ArrayList<>();
+            private boolean active;
+            private boolean rollbackOnly;
+
+            @Override
+            public Object createSavepoint() {
+                return rows.size();
+            }
+
+            @Override
+            public void rollbackToSavepoint(Object savepoint) {
+                rows.subList((Integer) savepoint, rows.size()).clear();
+            }
+
+            @Override
+            public void releaseSavepoint(Object savepoint) {
+            }
+        }
+    }
+}
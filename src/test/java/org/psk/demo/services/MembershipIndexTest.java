@@ -0,0 +1,212 @@
+package org.psk.demo.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MembershipIndexTest {
+
+    // Rows of the groups (id, creator_id) and group_members (group_id, user_id) tables
+    private final List<Map<String, Long>> groups = new CopyOnWriteArrayList<>();
+    private final List<Map<String, Long>> members = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger memberScans = new AtomicInteger();
+    // When set, the first member scan waits here after reading its rows
+    private volatile CountDownLatch scanning;
+    private volatile CountDownLatch release;
+
+    private MembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        groups.add(Map.of("id", 10L, "creator_id", 1L));
+        groups.add(Map.of("id", 20L, "creator_id", 3L));
+        addMember(10L, 1L);
+        addMember(10L, 2L);
+        addMember(20L, 2L);
+        addMember(20L, 3L);
+
+        index = new MembershipIndex();
+        ReflectionTestUtils.setField(index, "jdbcTemplate", new JdbcTemplate(database()));
+        ReflectionTestUtils.setField(index, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                return action.doInTransaction(null);
+            }
+        });
+        ReflectionTestUtils.setField(index, "fetchSize", 100);
+    }
+
+    @Test
+    void buildLoadsMembershipAndCreators() {
+        assertFalse(index.isReady());
+        index.build();
+
+        assertTrue(index.isReady());
+        assertTrue(index.isMember(10L, 2L));
+        assertFalse(index.isMember(10L, 3L));
+        assertTrue(index.canAccess(20L, 3L));
+        assertTrue(index.groupExists(20L));
+        assertEquals(2, index.getMemberCount(10L));
+        assertEquals(List.of(10L, 20L), index.sharedGroups(2L, 2L));
+        assertEquals(List.of(10L), index.sharedGroups(1L, 2L));
+        assertEquals(List.of(3L, 2L), index.membersAmong(20L, List.of(3L, 1L, 2L)));
+    }
+
+    @Test
+    void memberAddedWhileTheBuildScansIsKept() throws Exception {
+        changeDuringScan(() -> addMember(10L, 5L), () -> index.memberAdded(10L, 5L));
+
+        assertTrue(index.isMember(10L, 5L));
+        assertEquals(List.of(10L), index.sharedGroups(5L, 1L));
+        // The change made the build scan a second time
+        assertEquals(2, memberScans.get());
+    }
+
+    @Test
+    void memberRemovedWhileTheBuildScansStaysRemoved() throws Exception {
+        changeDuringScan(() -> members.removeIf(row -> row.get("group_id") == 10L && row.get("user_id") == 2L),
+                () -> index.memberRemoved(10L, 2L));
+
+        assertFalse(index.isMember(10L, 2L));
+        assertEquals(List.of(20L), index.sharedGroups(2L, 2L));
+        assertEquals(2, memberScans.get());
+    }
+
+    @Test
+    void changesAfterTheBuildNeedNoRescan() {
+        index.build();
+        index.memberAdded(20L, 1L);
+        index.groupDeleted(10L);
+
+        assertEquals(1, memberScans.get());
+        assertTrue(index.isMember(20L, 1L));
+        assertFalse(index.groupExists(10L));
+        assertEquals(List.of(20L), index.sharedGroups(1L, 2L));
+    }
+
+    @Test
+    void readersKeepTheBitmapTheyStartedOn() {
+        index.build();
+
+        // A change published mid-iteration swaps in a copy instead of editing the set being read
+        List<Long> visited = new ArrayList<>();
+        index.forEachMember(10L, userId -> {
+            visited.add(userId);
+            index.memberAdded(10L, 100L + userId);
+            index.memberRemoved(10L, 2L);
+        });
+
+        assertEquals(List.of(1L, 2L), visited);
+        assertFalse(index.isMember(10L, 2L));
+        assertTrue(index.isMember(10L, 101L));
+        assertTrue(index.isMember(10L, 102L));
+    }
+
+    /*
+     * Runs a build, and while its member scan is stalled after reading its rows, applies
+     * the change to the tables and then to the index, the order GroupService uses.
+     */
+    private void changeDuringScan(Runnable tableChange, Runnable indexChange) throws Exception {
+        scanning = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        CompletableFuture<Void> build = CompletableFuture.runAsync(index::build);
+
+        assertTrue(scanning.await(5, TimeUnit.SECONDS));
+        tableChange.run();
+        indexChange.run();
+        release.countDown();
+
+        build.get(5, TimeUnit.SECONDS);
+        assertTrue(index.isReady());
+    }
+
+    private void addMember(Long groupId, Long userId) {
+        members.add(Map.of("group_id", groupId, "user_id", userId));
+    }
+
+    // Just enough JDBC for the two scans: each query returns a copy of its table
+    private DataSource database() {
+        return proxy(DataSource.class, (proxy, method, args) -> method.getName().equals("getConnection")
+                ? proxy(Connection.class, (connection, connectionMethod, connectionArgs) ->
+                        connectionMethod.getName().equals("createStatement")
+                                ? proxy(Statement.class, this::statement)
+                                : defaultValue(connectionMethod))
+                : defaultValue(method));
+    }
+
+    private Object statement(Object proxy, Method method, Object[] args) throws Exception {
+        if (!method.getName().equals("executeQuery")) {
+            return defaultValue(method);
+        }
+
+        String sql = (String) args[0];
+        if (!sql.contains("group_members")) {
+            return resultSet(new ArrayList<>(groups));
+        }
+
+        List<Map<String, Long>> rows = new ArrayList<>(members);
+        if (memberScans.incrementAndGet() == 1 && scanning != null) {
+            scanning.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        }
+        return resultSet(rows);
+    }
+
+    private static ResultSet resultSet(List<Map<String, Long>> rows) {
+        Iterator<Map<String, Long>> cursor = rows.iterator();
+        Object[] current = new Object[1];
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> {
+                current[0] = cursor.hasNext() ? cursor.next() : null;
+                yield current[0] != null;
+            }
+            case "getLong" -> ((Map<?, ?>) current[0]).get(args[0]);
+            default -> defaultValue(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
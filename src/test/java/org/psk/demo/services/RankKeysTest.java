@@ -0,0 +1,119 @@
+package org.psk.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankKeysTest {
+
+    @Test
+    void emptyListStartsAtZero() {
+        assertEquals("a0", RankKeys.between(null, null));
+    }
+
+    @Test
+    void appendAndPrependStepTheInteger() {
+        assertEquals("a1", RankKeys.between("a0", null));
+        assertEquals("b00", RankKeys.between("az", null));
+        assertEquals("Zz", RankKeys.between(null, "a0"));
+        assertEquals("a0", RankKeys.between(null, "a0V"));
+    }
+
+    @Test
+    void adjacentIntegersGetAFraction() {
+        assertBetween("a0", "a1");
+        assertEquals("a0V", RankKeys.between("a0", "a1"));
+    }
+
+    @Test
+    void adjacentFractionDigitsGoOneDigitDeeper() {
+        String key = RankKeys.between("a0V", "a0W");
+        assertEquals("a0VV", key);
+        assertBetween("a0V", "a0W");
+    }
+
+    @Test
+    void sharedPrefixIsKept() {
+        assertEquals("a0VVV", RankKeys.between("a0VV", "a0VW"));
+        assertTrue(RankKeys.between("a0Vz", "a0W").startsWith("a0Vz"));
+        assertBetween("a0Vz", "a0W");
+        assertBetween("a0V", "a0V1");
+        assertBetween("a0VV", "a0VVV");
+    }
+
+    @Test
+    void keysNeverEndInZero() {
+        assertFalse(RankKeys.isValid("a0A0"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a0A0", null));
+
+        // The only room below "a01" is under its zero digit
+        assertEquals("a00V", RankKeys.between("a0", "a01"));
+        assertBetween("a0", "a01");
+        assertBetween("a0", "a001");
+    }
+
+    @Test
+    void rejectsMalformedAndOutOfOrderKeys() {
+        assertFalse(RankKeys.isValid(null));
+        assertFalse(RankKeys.isValid(""));
+        assertFalse(RankKeys.isValid("b0"));
+        assertFalse(RankKeys.isValid("a0-"));
+        assertFalse(RankKeys.isValid("0a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a1", "a0"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a1", "a1"));
+    }
+
+    @Test
+    void sequentialKeysAscend() {
+        List<String> keys = RankKeys.sequential(5000);
+
+        assertEquals(5000, keys.size());
+        assertEquals("a0", keys.get(0));
+        assertEquals("b00", keys.get(62));
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(RankKeys.isValid(keys.get(i)));
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " !< " + keys.get(i));
+        }
+    }
+
+    @Test
+    void appendsStayShort() {
+        String last = null;
+        for (int i = 0; i < 100_000; i++) {
+            last = RankKeys.between(last, null);
+        }
+        assertTrue(last.length() <= 4, last);
+    }
+
+    @Test
+    void randomInsertsKeepOrder() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>(RankKeys.sequential(10));
+
+        for (int i = 0; i < 10_000; i++) {
+            int at = random.nextInt(keys.size() + 1);
+            String before = at > 0 ? keys.get(at - 1) : null;
+            String after = at < keys.size() ? keys.get(at) : null;
+            keys.add(at, RankKeys.between(before, after));
+        }
+
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(RankKeys.isValid(keys.get(i)));
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " !< " + keys.get(i));
+        }
+    }
+
+    private static void assertBetween(String before, String after) {
+        String key = RankKeys.between(before, after);
+        assertTrue(RankKeys.isValid(key), key);
+        assertTrue(before.compareTo(key) < 0, before + " !< " + key);
+        assertTrue(key.compareTo(after) < 0, key + " !< " + after);
+    }
+}
@@ -0,0 +1,189 @@
+package org.psk.demo.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.psk.demo.entity.Comment;
+import org.psk.demo.entity.User;
+import org.psk.demo.repository.CommentRepository;
+import org.psk.demo.repository.UserRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentCommentsCacheTest {
+
+    private static final Long GROUP_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+    private static final LocalDateTime SINCE = NOW.minusHours(24);
+
+    // The comments table for GROUP_ID
+    private final List<Comment> stored = new CopyOnWriteArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    // When set, the warm-up waits here after reading the table
+    private volatile CountDownLatch loading;
+    private volatile CountDownLatch release;
+
+    private RecentCommentsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentCommentsCache();
+        ReflectionTestUtils.setField(cache, "commentRepository", commentRepository());
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository());
+        ReflectionTestUtils.setField(cache, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "capacity", 3);
+        ReflectionTestUtils.setField(cache, "maxGroups", 10);
+        ReflectionTestUtils.setField(cache, "idleEvictMs", 600_000L);
+        cache.init();
+    }
+
+    @Test
+    void warmedGroupIsServedFromMemoryNewestFirst() {
+        stored.add(comment(1L, 0L, NOW.minusHours(2)));
+        stored.add(comment(2L, 0L, NOW.minusHours(1)));
+
+        assertEquals(List.of(2L, 1L), ids(cache.getSince(GROUP_ID, SINCE)));
+        cache.commentSaved(comment(3L, 0L, NOW), "author");
+
+        assertEquals(List.of(3L, 2L, 1L), ids(cache.getSince(GROUP_ID, SINCE)));
+        assertEquals(List.of(3L), ids(cache.getSince(GROUP_ID, NOW.minusMinutes(30))));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void writesCommittedDuringWarmUpAreReplayedOverTheSnapshot() throws Exception {
+        stored.add(comment(1L, 0L, NOW.minusHours(3)));
+        stored.add(comment(2L, 0L, NOW.minusHours(2)));
+
+        loading = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        CompletableFuture<List<RecentCommentsCache.RecentComment>> warming =
+                CompletableFuture.supplyAsync(() -> cache.getSince(GROUP_ID, SINCE));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // Other readers go to the database until the snapshot is in
+        assertNull(cache.getSince(GROUP_ID, SINCE));
+
+        // Commits the snapshot missed, and one it already holds
+        cache.commentSaved(comment(3L, 0L, NOW.minusHours(1)), "author");
+        cache.commentSaved(comment(2L, 0L, NOW.minusHours(2)), "author");
+        cache.commentSaved(comment(1L, 1L, NOW.minusHours(3)), "author");
+        cache.replyCountChanged(GROUP_ID, 3L, 4);
+        cache.commentDeleted(GROUP_ID, 2L);
+        release.countDown();
+
+        List<RecentCommentsCache.RecentComment> warmed = warming.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(3L, 1L), ids(warmed));
+        assertEquals(4, warmed.get(0).replyCount());
+        assertEquals(Long.valueOf(1), warmed.get(1).version());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void readsOlderThanTheCapacityCoversFallBackToTheDatabase() {
+        for (long id = 1; id <= 5; id++) {
+            stored.add(comment(id, 0L, NOW.minusHours(6 - id)));
+        }
+
+        // Only the three newest fit, so the first read cannot be answered from memory
+        assertNull(cache.getSince(GROUP_ID, SINCE));
+        assertNull(cache.getSince(GROUP_ID, NOW.minusHours(4)));
+        assertEquals(List.of(5L, 4L), ids(cache.getSince(GROUP_ID, NOW.minusHours(3))));
+
+        // An edit of a comment from before the cutoff is not pulled in, so the cutoff stays
+        cache.commentSaved(comment(1L, 1L, NOW.minusHours(5)), "author");
+        assertNull(cache.getSince(GROUP_ID, NOW.minusHours(5)));
+
+        // New comments push the oldest out and move the cutoff up to them
+        cache.commentSaved(comment(6L, 0L, NOW.minusMinutes(30)), "author");
+        cache.commentSaved(comment(7L, 0L, NOW), "author");
+        assertNull(cache.getSince(GROUP_ID, NOW.minusHours(3)));
+        assertEquals(List.of(7L, 6L, 5L), ids(cache.getSince(GROUP_ID, NOW.minusHours(2))));
+        assertEquals(1, loads.get());
+    }
+
+    private static List<Long> ids(List<RecentCommentsCache.RecentComment> comments) {
+        return comments.stream().map(RecentCommentsCache.RecentComment::id).toList();
+    }
+
+    private static Comment comment(Long id, Long version, LocalDateTime createdAt) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setVersion(version);
+        comment.setGroupId(GROUP_ID);
+        comment.setAuthorId(7L);
+        comment.setContent("comment " + id);
+        comment.setCreatedAt(createdAt);
+        comment.setUpdatedAt(createdAt);
+        comment.setThreadPath(CommentService.threadKey(id));
+        return comment;
+    }
+
+    // Recent comments newest first, as the query orders them
+    private CommentRepository commentRepository() {
+        return (CommentRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{CommentRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findRecentCommentsByGroupId")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    loads.incrementAndGet();
+                    LocalDateTime since = (LocalDateTime) args[1];
+                    List<Comment> recent = new ArrayList<>(stored.stream()
+                            .filter(comment -> !comment.getCreatedAt().isBefore(since))
+                            .sorted(Comparator.comparing(Comment::getCreatedAt).reversed())
+                            .toList());
+                    if (loading != null) {
+                        loading.countDown();
+                        assertTrue(release.await(5, TimeUnit.SECONDS));
+                    }
+                    return recent;
+                });
+    }
+
+    private UserRepository userRepository() {
+        User author = new User();
+        author.setId(7L);
+        author.setUsername("author");
+        return (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllById" -> List.of(author);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
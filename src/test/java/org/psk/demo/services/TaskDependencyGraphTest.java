@@ -0,0 +1,174 @@
+package org.psk.demo.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskDependencyGraphTest {
+
+    private static final Long GROUP_ID = 1L;
+
+    private TaskDependencyGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new TaskDependencyGraph();
+        // Every group starts out with no stored dependencies
+        ReflectionTestUtils.setField(graph, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rejectsEdgesThatCloseACycle() {
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+        assertTrue(graph.addDependency(GROUP_ID, 3L, 2L));
+
+        assertFalse(graph.addDependency(GROUP_ID, 1L, 3L));
+        assertFalse(graph.addDependency(GROUP_ID, 1L, 2L));
+
+        assertEquals(List.of(1L, 2L, 3L), taskIds());
+        assertEquals(List.of(2L), dependsOn(3L));
+    }
+
+    @Test
+    void addingAnExistingEdgeAgainSucceeds() {
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+
+        assertEquals(List.of(1L), dependsOn(2L));
+    }
+
+    @Test
+    void reordersWhenAnEdgeDisagreesWithTheOrder() {
+        // 3 and 4 get placed first, then 1 and 2 must move in front of them
+        assertTrue(graph.addDependency(GROUP_ID, 4L, 3L));
+        assertTrue(graph.addDependency(GROUP_ID, 3L, 2L));
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), taskIds());
+    }
+
+    @Test
+    void randomAcyclicEdgesAreAcceptedAndCyclesRejected() {
+        Random random = new Random(7);
+        List<Long> hidden = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            hidden.add(id);
+        }
+        Collections.shuffle(hidden, random);
+
+        // Edges that agree with a hidden order can never close a cycle
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(hidden.size());
+            int b = random.nextInt(hidden.size());
+            if (a == b) {
+                continue;
+            }
+            Long first = hidden.get(Math.min(a, b));
+            Long second = hidden.get(Math.max(a, b));
+            assertTrue(graph.addDependency(GROUP_ID, second, first));
+            assertTopological();
+        }
+
+        // Reversing any stored edge closes a two-task cycle
+        for (TaskDependencyGraph.TaskNode node : graph.topologicalOrder(GROUP_ID)) {
+            for (Long dependency : node.dependsOn()) {
+                assertFalse(graph.addDependency(GROUP_ID, dependency, node.taskId()));
+            }
+        }
+        assertTopological();
+    }
+
+    @Test
+    void rollbackTakesTheEdgeBackOut() {
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(graph.addDependency(GROUP_ID, 3L, 2L));
+        assertTrue(graph.addDependency(GROUP_ID, 1L, 4L));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(List.of(1L, 2L), taskIds());
+        assertTrue(dependsOn(1L).isEmpty());
+    }
+
+    @Test
+    void commitKeepsTheEdge() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of(1L), dependsOn(2L));
+    }
+
+    @Test
+    void removalsDropTasksWithoutEdges() {
+        assertTrue(graph.addDependency(GROUP_ID, 2L, 1L));
+        assertTrue(graph.addDependency(GROUP_ID, 3L, 2L));
+
+        graph.dependencyRemoved(GROUP_ID, 3L, 2L);
+        assertEquals(List.of(1L, 2L), taskIds());
+
+        graph.tasksRemoved(GROUP_ID, List.of(1L));
+        assertTrue(graph.topologicalOrder(GROUP_ID).isEmpty());
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private List<Long> taskIds() {
+        return graph.topologicalOrder(GROUP_ID).stream().map(TaskDependencyGraph.TaskNode::taskId).toList();
+    }
+
+    private List<Long> dependsOn(Long taskId) {
+        return graph.topologicalOrder(GROUP_ID).stream()
+                .filter(node -> node.taskId() == taskId)
+                .findFirst()
+                .map(TaskDependencyGraph.TaskNode::dependsOn)
+                .orElse(List.of());
+    }
+
+    private void assertTopological() {
+        Map<Long, Integer> position = new HashMap<>();
+        List<TaskDependencyGraph.TaskNode> order = graph.topologicalOrder(GROUP_ID);
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i).taskId(), i);
+        }
+        for (TaskDependencyGraph.TaskNode node : order) {
+            for (Long dependency : node.dependsOn()) {
+                assertTrue(position.get(dependency) < position.get(node.taskId()),
+                        node.taskId() + " comes before its dependency " + dependency);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.psk.demo.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.psk.demo.dto.response.TaskVersionResponse;
+import org.psk.demo.entity.Task;
+import org.psk.demo.entity.TaskRevision;
+import org.psk.demo.entity.TaskRevisionType;
+import org.psk.demo.entity.TaskStatus;
+import org.psk.demo.repository.TaskRevisionRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskHistoryRecorderTest {
+
+    private static final Long TASK_ID = 7L;
+    private static final int SNAPSHOT_INTERVAL = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<TaskRevision> revisions = new CopyOnWriteArrayList<>();
+
+    private TaskHistoryRecorder recorder;
+    private TaskHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        TaskRevisionRepository repository = revisionRepository();
+
+        recorder = new TaskHistoryRecorder();
+        ReflectionTestUtils.setField(recorder, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> rows) {
+                for (Object[] row : rows) {
+                    revisions.add(new TaskRevision((long) revisions.size() + 1, (Long) row[0], (Long) row[1],
+                            (Long) row[2], TaskRevisionType.valueOf((String) row[3]), (String) row[4],
+                            (Long) row[5], (LocalDateTime) row[6]));
+                }
+                return new int[rows.size()];
+            }
+        });
+        ReflectionTestUtils.setField(recorder, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                return action.doInTransaction(null);
+            }
+        });
+        ReflectionTestUtils.setField(recorder, "taskRevisionRepository", repository);
+        ReflectionTestUtils.setField(recorder, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(recorder, "snapshotInterval", SNAPSHOT_INTERVAL);
+        ReflectionTestUtils.setField(recorder, "batchSize", 200);
+
+        historyService = new TaskHistoryService();
+        ReflectionTestUtils.setField(historyService, "taskRevisionRepository", repository);
+        ReflectionTestUtils.setField(historyService, "objectMapper", objectMapper);
+    }
+
+    @Test
+    void versionsBumpedWithoutRevisionCountTowardsTheSnapshotGap() throws Exception {
+        // 3, 6 and 9 are moves and re-parents, which bump the version but record nothing
+        record(0, 1, 2, 4, 5, 7, 8, 10);
+
+        assertEquals(List.of(0L, 4L, 7L, 10L), snapshotVersions());
+    }
+
+    @Test
+    void firstDeltaOfATaskWithoutSnapshotIsWrittenAsOne() throws Exception {
+        Task task = task(5, "before history");
+        recorder.start();
+        recorder.record(task(6, "edited"), TaskHistoryRecorder.fieldsOf(task), 1L);
+        recorder.stop();
+
+        assertEquals(List.of(6L), snapshotVersions());
+        assertEquals("edited", historyService.getVersion(TASK_ID, 6L).getFields().get("title"));
+    }
+
+    @Test
+    void everyRecordedVersionRebuildsFromSnapshotPlusDeltas() throws Exception {
+        Map<Long, Map<String, Object>> expected = record(0, 1, 2, 4, 5, 7, 8, 10, 11, 12, 13, 14, 20, 21);
+
+        for (Map.Entry<Long, Map<String, Object>> version : expected.entrySet()) {
+            TaskVersionResponse rebuilt = historyService.getVersion(TASK_ID, version.getKey());
+            assertTrue(rebuilt.isSuccess(), rebuilt.getMessage());
+            assertEquals(version.getValue(), rebuilt.getFields());
+
+            long sinceSnapshot = version.getKey() - lastSnapshotAtOrBelow(version.getKey());
+            assertTrue(sinceSnapshot < SNAPSHOT_INTERVAL,
+                    "version " + version.getKey() + " is " + sinceSnapshot + " versions past its snapshot");
+        }
+    }
+
+    /*
+     * Records a create at the first version and an edit of the title at each later one,
+     * as TaskService does, and waits for the writer to store them. Returns the fields
+     * each version should rebuild to.
+     */
+    private Map<Long, Map<String, Object>> record(long... versions) throws Exception {
+        Map<Long, Map<String, Object>> expected = new LinkedHashMap<>();
+        recorder.start();
+
+        Task previous = null;
+        for (long version : versions) {
+            Task task = task(version, "v" + version);
+            recorder.record(task, previous != null ? TaskHistoryRecorder.fieldsOf(previous) : null, 1L);
+            expected.put(version, TaskHistoryRecorder.fieldsOf(task));
+            previous = task;
+        }
+
+        recorder.stop();
+        return expected;
+    }
+
+    private List<Long> snapshotVersions() {
+        return revisions.stream()
+                .filter(revision -> revision.getType() == TaskRevisionType.SNAPSHOT)
+                .map(TaskRevision::getVersion)
+                .sorted()
+                .toList();
+    }
+
+    private long lastSnapshotAtOrBelow(long version) {
+        return snapshotVersions().stream().filter(snapshot -> snapshot <= version).max(Long::compare).orElseThrow();
+    }
+
+    private static Task task(long version, String title) {
+        Task task = new Task();
+        task.setId(TASK_ID);
+        task.setGroupId(1L);
+        task.setVersion(version);
+        task.setTitle(title);
+        task.setDescription("description");
+        task.setDeadline(LocalDateTime.of(2030, 1, 1, 12, 0));
+        task.setStatus(TaskStatus.TODO);
+        return task;
+    }
+
+    // The queries the recorder and the rebuild use, answered from the stored revisions
+    private TaskRevisionRepository revisionRepository() {
+        return (TaskRevisionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TaskRevisionRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findLatestSnapshotVersions" -> revisions.stream()
+                            .filter(revision -> ((Collection<?>) args[0]).contains(revision.getTaskId()))
+                            .filter(revision -> revision.getType() == TaskRevisionType.SNAPSHOT)
+                            .collect(Collectors.toMap(TaskRevision::getTaskId,
+                                    TaskRevision::getVersion, Math::max))
+                            .entrySet().stream()
+                            .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                            .toList();
+                    case "findFirstByTaskIdAndTypeAndVersionLessThanEqualOrderByVersionDesc" -> revisions.stream()
+                            .filter(revision -> revision.getTaskId().equals(args[0]))
+                            .filter(revision -> revision.getType() == args[1])
+                            .filter(revision -> revision.getVersion() <= (Long) args[2])
+                            .max(Comparator.comparing(TaskRevision::getVersion));
+                    case "findByTaskIdAndVersionBetweenOrderByVersionAsc" -> revisions.stream()
+                            .filter(revision -> revision.getTaskId().equals(args[0]))
+                            .filter(revision -> revision.getVersion() >= (Long) args[1]
+                                    && revision.getVersion() <= (Long) args[2])
+                            .sorted(Comparator.comparing(TaskRevision::getVersion))
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}